@@ -0,0 +1,83 @@
+package wt.bookstore.benchmark;
+
+import wt.bookstore.backend.domains.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds (unsaved) entities with realistic field values for the benchmarks.
+ */
+final class BenchmarkData {
+
+    private static final String[] FIRST_NAMES = {"Jan", "Sanne", "Pieter", "Fleur", "Daan", "Lotte", "Bram", "Eva"};
+
+    private static final String[] LAST_NAMES = {"de Vries", "Jansen", "Bakker", "Visser", "Smit", "Meijer"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Book> books(int count) {
+        List<Book> books = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Book book = new Book(9789000000000L + i, "Title of book number " + i, "Author " + (i % 97));
+            book.setId(i + 1);
+            books.add(book);
+        }
+        return books;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId(i + 1);
+            user.setFirstName(FIRST_NAMES[i % FIRST_NAMES.length]);
+            user.setLastName(LAST_NAMES[i % LAST_NAMES.length]);
+            user.setEmailAddress("user" + i + "@workingtalent.nl");
+            user.setPassword("hash");
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * Loans spread over a small number of users and books, so names and titles repeat like they do in production.
+     */
+    static List<Loan> loans(int count) {
+        List<Book> books = books(Math.max(1, count / 10));
+        List<User> users = users(Math.max(1, count / 20));
+        List<Loan> loans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Copy copy = new Copy();
+            copy.setId(i + 1);
+            copy.setBook(books.get(i % books.size()));
+            copy.setAvailable(i % 3 == 0);
+
+            Loan loan = new Loan();
+            loan.setId(i + 1);
+            loan.setStartDate(LocalDate.of(2023, 1, 1).plusDays(i % 365));
+            loan.setEndDate(loan.getStartDate().plusWeeks(3));
+            loan.setUser(users.get(i % users.size()));
+            loan.setCopy(copy);
+            loans.add(loan);
+        }
+        return loans;
+    }
+
+    static List<Reservation> reservations(int count) {
+        List<Book> books = books(Math.max(1, count / 10));
+        List<User> users = users(Math.max(1, count / 20));
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Reservation reservation = new Reservation();
+            reservation.setId(i + 1);
+            reservation.setDate(LocalDate.of(2023, 1, 1).plusDays(i % 365));
+            reservation.setBook(books.get(i % books.size()));
+            reservation.setUser(users.get(i % users.size()));
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
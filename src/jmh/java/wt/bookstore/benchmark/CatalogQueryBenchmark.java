@@ -0,0 +1,69 @@
+package wt.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import wt.bookstore.backend.controllers.BookController;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.dto.BookDto;
+import wt.bookstore.backend.repository.IBookRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The book search and paging endpoints, called on the controller of a backend running against an embedded database
+ * with {@link #books} books. Includes the query, the mapping to DTO's and materializing the result, not the HTTP layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogQueryBenchmark {
+
+    @Param({"10000"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+
+    private BookController bookController;
+
+    private long bookId;
+
+    @Setup
+    public void setUp() {
+        context = EmbeddedBookstore.start();
+        List<Book> saved = context.getBean(IBookRepository.class).saveAll(BenchmarkData.books(books).stream()
+                .peek(book -> book.setId(0))
+                .toList());
+        bookId = saved.get(saved.size() / 2).getId();
+        bookController = context.getBean(BookController.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> searchByTitle() {
+        return bookController.searchBooks("number 12", 0, 20, new MockHttpServletRequest()).join().getBody();
+    }
+
+    @Benchmark
+    public List<BookDto> searchByAuthor() {
+        return bookController.searchBooks("Author 42", 0, 20, new MockHttpServletRequest()).join().getBody();
+    }
+
+    @Benchmark
+    public List<BookDto> findPage() {
+        return bookController.findAllByPage(10, 20, new MockHttpServletRequest()).join().getBody();
+    }
+
+    @Benchmark
+    public BookDto findById() {
+        return bookController.find(bookId, new MockHttpServletRequest()).join().getBody().get();
+    }
+}
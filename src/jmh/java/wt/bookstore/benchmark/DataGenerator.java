@@ -0,0 +1,323 @@
+package wt.bookstore.benchmark;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.*;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Fills a local database with a production-sized, skewed dataset: hundreds of thousands of books, millions of loans.
+ * Rows are inserted with batched JDBC statements, which is orders of magnitude faster than fill_database.py going
+ * through the REST API. Popularity follows a Zipf distribution ({@code --skew}): a few books get most of the loans,
+ * reservations and copies, and a few keywords are on most books. Which books are popular is random, so popularity does
+ * not line up with the order of the ids.
+ *
+ * The tables must exist, start the backend once against the database first. Existing rows are kept, the generated
+ * rows are added to them. Every generated user has the password "password".
+ *
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.mainClass=wt.bookstore.benchmark.DataGenerator
+ *     -Dbenchmark.args="--books=200000 --loans=2000000"
+ *
+ * Options (defaults between brackets): --url, --username (root), --password (empty) of the database, --books (200000),
+ * --users (50000), --copies-per-book (3, on average), --keywords (500), --keywords-per-book (3, on average),
+ * --loans (2000000), --reservations (100000), --skew (1.0), --batch-size (5000) and --seed (42).
+ */
+public final class DataGenerator {
+
+    static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/bookstore?rewriteBatchedStatements=true";
+
+    static final String[] TITLE_WORDS = {"nacht", "zee", "stad", "oorlog", "liefde", "bergen", "tijd", "huis",
+            "rivier", "winter", "zomer", "koning", "tuin", "stilte", "reis", "vader", "moeder", "brief", "eiland", "hemel"};
+
+    private static final String[] TITLE_ADJECTIVES = {"De lange", "Het laatste", "De stille", "Het verloren", "De acht",
+            "Een korte", "De grote", "Het donkere", "De verre", "Het eerste"};
+
+    private static final String[] FIRST_NAMES = {"Jan", "Sanne", "Pieter", "Fleur", "Daan", "Lotte", "Bram", "Eva",
+            "Noah", "Emma", "Lucas", "Julia", "Sem", "Mila", "Finn", "Tess"};
+
+    private static final String[] LAST_NAMES = {"de Vries", "Jansen", "Bakker", "Visser", "Smit", "Meijer", "de Boer",
+            "Mulder", "de Groot", "Bos", "Vos", "Peters", "Hendriks", "van Dijk"};
+
+    private static final String[] KEYWORD_WORDS = {"roman", "thriller", "geschiedenis", "filosofie", "poezie",
+            "biografie", "wetenschap", "psychologie", "kinderboek", "fantasy", "detective", "kunst", "reizen", "koken",
+            "economie", "politiek", "natuur", "religie", "humor", "oorlog", "liefde", "familie", "misdaad", "muziek",
+            "sport", "techniek", "klassiek", "young adult", "waargebeurd", "spanning"};
+
+    private final Connection connection;
+
+    private final Random random;
+
+    private final int batchSize;
+
+    private DataGenerator(Connection connection, long seed, int batchSize) {
+        this.connection = connection;
+        this.random = new Random(seed);
+        this.batchSize = batchSize;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Options options = new Options(args);
+        int bookCount = options.integer("books", 200_000);
+        int userCount = options.integer("users", 50_000);
+        int copiesPerBook = options.integer("copies-per-book", 3);
+        int keywordCount = options.integer("keywords", 500);
+        int keywordsPerBook = options.integer("keywords-per-book", 3);
+        int loanCount = options.integer("loans", 2_000_000);
+        int reservationCount = options.integer("reservations", 100_000);
+        double skew = options.decimal("skew", 1.0);
+
+        try (Connection connection = DriverManager.getConnection(options.string("url", DEFAULT_URL),
+                options.string("username", "root"), options.string("password", ""))) {
+            connection.setAutoCommit(false);
+            DataGenerator generator = new DataGenerator(connection, options.integer("seed", 42),
+                    options.integer("batch-size", 5000));
+
+            long[] bookIds = generator.insertBooks(bookCount);
+            long[] userIds = generator.insertUsers(userCount);
+            long[] keywordIds = generator.insertKeywords(keywordCount);
+
+            // Rank 0 is the most popular; the permutations decide which book and which user has which rank
+            Zipf bookPopularity = new Zipf(bookIds.length, skew);
+            int[] bookByRank = generator.permutation(bookIds.length);
+            Zipf userActivity = new Zipf(userIds.length, skew * 0.8);
+            int[] userByRank = generator.permutation(userIds.length);
+
+            generator.insertBookKeywords(bookIds, keywordIds, keywordsPerBook, skew);
+            long[][] copyIds = generator.insertCopies(bookIds, bookByRank, copiesPerBook);
+            generator.insertLoans(loanCount, copyIds, bookPopularity, bookByRank, userIds, userActivity, userByRank);
+            generator.insertReservations(reservationCount, bookIds, bookPopularity, bookByRank, userIds, userActivity,
+                    userByRank);
+            generator.updateAvailability();
+        }
+    }
+
+    private long[] insertBooks(int count) throws SQLException {
+        long firstIsbn = 9789000000000L + count("book");
+        long previousId = maxId("book");
+        insert("book", "insert into book (isbn, title, author) values (?, ?, ?)", count, (statement, row) -> {
+            statement.setLong(1, firstIsbn + row);
+            statement.setString(2, pick(TITLE_ADJECTIVES) + " " + pick(TITLE_WORDS)
+                    + (random.nextInt(4) == 0 ? " en de " + pick(TITLE_WORDS) : ""));
+            statement.setString(3, pick(FIRST_NAMES) + " " + pick(LAST_NAMES));
+        });
+        return ids("book", previousId);
+    }
+
+    private long[] insertUsers(int count) throws SQLException {
+        // One hash for everyone, hashing every password with bcrypt would take hours
+        String password = new BCryptPasswordEncoder(10).encode("password");
+        long previousId = maxId("user");
+        insert("user", "insert into user (first_name, last_name, email_address, password, admin) values (?, ?, ?, ?, ?)",
+                count, (statement, row) -> {
+                    statement.setString(1, pick(FIRST_NAMES));
+                    statement.setString(2, pick(LAST_NAMES));
+                    statement.setString(3, "user" + (previousId + row + 1) + "@bookstore.test");
+                    statement.setString(4, password);
+                    statement.setBoolean(5, row == 0);
+                });
+        return ids("user", previousId);
+    }
+
+    /**
+     * Inserts the keywords that do not exist yet, and returns the ids of all requested keywords.
+     */
+    private long[] insertKeywords(int count) throws SQLException {
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; names.size() < count; i++) {
+            int words = KEYWORD_WORDS.length;
+            if (i < words)
+                names.add(KEYWORD_WORDS[i]);
+            else if (i / words - 1 != i % words && i < words * (words + 1))
+                names.add(KEYWORD_WORDS[i / words - 1] + " " + KEYWORD_WORDS[i % words]);
+            else if (i >= words * (words + 1))
+                names.add("onderwerp " + i);
+        }
+
+        Map<String, Long> existing = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select id, name from keyword")) {
+            while (resultSet.next())
+                existing.put(resultSet.getString(2), resultSet.getLong(1));
+        }
+        List<String> missing = names.stream().filter(name -> !existing.containsKey(name)).toList();
+        long previousId = maxId("keyword");
+        insert("keyword", "insert into keyword (name) values (?)", missing.size(),
+                (statement, row) -> statement.setString(1, missing.get(row)));
+
+        long[] insertedIds = ids("keyword", previousId);
+        for (int i = 0; i < insertedIds.length; i++)
+            existing.put(missing.get(i), insertedIds[i]);
+        return names.stream().mapToLong(existing::get).toArray();
+    }
+
+    /**
+     * Tags every book with 1 to 2 * perBook - 1 keywords, popular keywords first.
+     */
+    private void insertBookKeywords(long[] bookIds, long[] keywordIds, int perBook, double skew) throws SQLException {
+        Zipf keywordPopularity = new Zipf(keywordIds.length, skew);
+        List<long[]> pairs = new ArrayList<>();
+        Set<Long> tags = new HashSet<>();
+        for (long bookId : bookIds) {
+            int count = Math.min(keywordIds.length, 1 + random.nextInt(Math.max(1, 2 * perBook - 1)));
+            tags.clear();
+            while (tags.size() < count)
+                tags.add(keywordIds[keywordPopularity.next(random)]);
+            for (long keywordId : tags)
+                pairs.add(new long[]{bookId, keywordId});
+        }
+        insert("book_keywords", "insert into book_keywords (book_id, keyword_id) values (?, ?)", pairs.size(),
+                (statement, row) -> {
+                    statement.setLong(1, pairs.get(row)[0]);
+                    statement.setLong(2, pairs.get(row)[1]);
+                });
+    }
+
+    /**
+     * Gives popular books more copies: the most popular tenth gets up to twice the average.
+     *
+     * @return the ids of the copies, per book
+     */
+    private long[][] insertCopies(long[] bookIds, int[] bookByRank, int perBook) throws SQLException {
+        int[] counts = new int[bookIds.length];
+        int total = 0;
+        for (int rank = 0; rank < bookIds.length; rank++) {
+            int extra = rank < bookIds.length / 10 ? perBook : 0;
+            counts[bookByRank[rank]] = 1 + random.nextInt(Math.max(1, 2 * perBook - 1)) + extra;
+            total += counts[bookByRank[rank]];
+        }
+
+        long previousId = maxId("copy");
+        int[] bookOfRow = new int[total];
+        for (int book = 0, row = 0; book < bookIds.length; book++)
+            for (int i = 0; i < counts[book]; i++)
+                bookOfRow[row++] = book;
+        insert("copy", "insert into copy (available, book_id) values (?, ?)", total, (statement, row) -> {
+            statement.setBoolean(1, true);
+            statement.setLong(2, bookIds[bookOfRow[row]]);
+        });
+
+        long[] ids = ids("copy", previousId);
+        long[][] copyIds = new long[bookIds.length][];
+        for (int book = 0, row = 0; book < bookIds.length; book++) {
+            copyIds[book] = Arrays.copyOfRange(ids, row, row + counts[book]);
+            row += counts[book];
+        }
+        return copyIds;
+    }
+
+    /**
+     * Loans of the last three years, of 1 to 6 weeks. Loans that would end after today are still open.
+     */
+    private void insertLoans(int count, long[][] copyIds, Zipf bookPopularity, int[] bookByRank, long[] userIds,
+                             Zipf userActivity, int[] userByRank) throws SQLException {
+        LocalDate today = LocalDate.now();
+        insert("loan", "insert into loan (start_date, end_date, user_id, copy_id) values (?, ?, ?, ?)", count,
+                (statement, row) -> {
+                    long[] copies = copyIds[bookByRank[bookPopularity.next(random)]];
+                    LocalDate startDate = today.minusDays(random.nextInt(3 * 365));
+                    LocalDate endDate = startDate.plusWeeks(1 + random.nextInt(6));
+                    statement.setDate(1, Date.valueOf(startDate));
+                    statement.setDate(2, endDate.isAfter(today) ? null : Date.valueOf(endDate));
+                    statement.setLong(3, userIds[userByRank[userActivity.next(random)]]);
+                    statement.setLong(4, copies[random.nextInt(copies.length)]);
+                });
+    }
+
+    /**
+     * Reservations for the coming two months.
+     */
+    private void insertReservations(int count, long[] bookIds, Zipf bookPopularity, int[] bookByRank, long[] userIds,
+                                    Zipf userActivity, int[] userByRank) throws SQLException {
+        LocalDate today = LocalDate.now();
+        insert("reservation", "insert into reservation (date, book_id, user_id) values (?, ?, ?)", count,
+                (statement, row) -> {
+                    statement.setDate(1, Date.valueOf(today.plusDays(random.nextInt(60))));
+                    statement.setLong(2, bookIds[bookByRank[bookPopularity.next(random)]]);
+                    statement.setLong(3, userIds[userByRank[userActivity.next(random)]]);
+                });
+    }
+
+    /**
+     * Copies with an open loan are not available.
+     */
+    private void updateAvailability() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            int updated = statement.executeUpdate(
+                    "update copy set available = false where id in (select copy_id from loan where end_date is null)");
+            connection.commit();
+            System.out.printf("copy: %d copies lent out%n", updated);
+        }
+    }
+
+    /**
+     * Inserts the rows in batches of {@code --batch-size}, committing after every batch.
+     */
+    private void insert(String table, String sql, int count, RowWriter writer) throws SQLException {
+        long start = System.nanoTime();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int row = 0; row < count; row++) {
+                writer.write(statement, row);
+                statement.addBatch();
+                if ((row + 1) % batchSize == 0 || row + 1 == count) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d rows in %.1f s (%.0f rows/s)%n", table, count, seconds, count / Math.max(seconds, 1e-3));
+    }
+
+    private long[] ids(String table, long afterId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "select id from " + table + " where id > ? order by id")) {
+            statement.setLong(1, afterId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<Long> ids = new ArrayList<>();
+                while (resultSet.next())
+                    ids.add(resultSet.getLong(1));
+                return ids.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+    }
+
+    private long maxId(String table) throws SQLException {
+        return single("select coalesce(max(id), 0) from " + table);
+    }
+
+    private long count(String table) throws SQLException {
+        return single("select count(*) from " + table);
+    }
+
+    private long single(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private int[] permutation(int n) {
+        int[] permutation = new int[n];
+        for (int i = 0; i < n; i++)
+            permutation[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return permutation;
+    }
+
+    private String pick(String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private interface RowWriter {
+
+        void write(PreparedStatement statement, int row) throws SQLException;
+    }
+}
@@ -0,0 +1,23 @@
+package wt.bookstore.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import wt.bookstore.BookstoreApplication;
+
+/**
+ * Starts the backend (without the web server) against the in-memory H2 database of the "embedded" profile, for
+ * benchmarks of the query paths.
+ */
+final class EmbeddedBookstore {
+
+    private EmbeddedBookstore() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BookstoreApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .run("--spring.devtools.restart.enabled=false", "--logging.level.root=WARN");
+    }
+}
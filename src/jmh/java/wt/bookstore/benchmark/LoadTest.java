@@ -0,0 +1,338 @@
+package wt.bookstore.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Sends a weighted mix of GET requests to a running backend and reports the throughput and the latency percentiles
+ * per endpoint. The ids in the requests are drawn with the same Zipf skew as the data of {@link DataGenerator}, from
+ * the id ranges in the database of the backend, so caches see a realistic mix of hot and cold entries.
+ *
+ * Without {@code --rate} every thread sends its next request as soon as the previous one is answered. With a rate the
+ * requests are sent on a fixed schedule and latencies are measured from the scheduled time, so a slow response also
+ * counts against the requests that had to wait for it.
+ *
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.mainClass=wt.bookstore.benchmark.LoadTest
+ *     -Dbenchmark.args="--threads=16 --duration=60s" -Dbenchmark.result=target/loadtest.json
+ *
+ * Options (defaults between brackets): --base-url (http://localhost:8080), --url, --username (root) and --password
+ * (empty) of the database, --threads (8), --rate (requests per second, 0 for as fast as possible), --warmup (10s),
+ * --duration (30s), --skew (1.0), --accept (application/json) and --mix (see {@link #DEFAULT_MIX}).
+ *
+ * The mix is a comma separated list of path:weight. Paths can contain the placeholders {book}, {copy}, {keyword},
+ * {loan}, {reservation} and {user} for an id, {books} for ten book ids, {page} for a page number and {word} for a
+ * search term.
+ */
+public final class LoadTest {
+
+    static final String DEFAULT_MIX = "book/{book}:30,book/multi?ids={books}:5,book/{book}/similar:10,"
+            + "bookPage/{page}/20:10,booksearch/{word}/0/20:10,keyword:5,keyword/cloud:5,copy/{copy}:10,"
+            + "loan/{loan}:5,reservation/{reservation}:5,user/{user}/recommendations:5";
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\w+)}");
+
+    private static final String[] TABLES = {"book", "copy", "keyword", "loan", "reservation", "user"};
+
+    /**
+     * Latencies are recorded in microseconds, up to a minute, with three significant digits
+     */
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUrl;
+
+    private final String accept;
+
+    private final List<Entry> mix;
+
+    private final int totalWeight;
+
+    private final Map<String, IdRange> idRanges;
+
+    private final Zipf pages = new Zipf(100, 1.0);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private LoadTest(String baseUrl, String accept, List<Entry> mix, Map<String, IdRange> idRanges) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        this.accept = accept;
+        this.mix = mix;
+        this.totalWeight = mix.stream().mapToInt(entry -> entry.weight).sum();
+        this.idRanges = idRanges;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int threads = options.integer("threads", 8);
+        double rate = options.decimal("rate", 0);
+        Duration warmup = options.duration("warmup", Duration.ofSeconds(10));
+        Duration duration = options.duration("duration", Duration.ofSeconds(30));
+        double skew = options.decimal("skew", 1.0);
+
+        Map<String, IdRange> idRanges = new HashMap<>();
+        try (Connection connection = DriverManager.getConnection(options.string("url", DataGenerator.DEFAULT_URL),
+                options.string("username", "root"), options.string("password", ""))) {
+            for (String table : TABLES)
+                idRanges.put(table, IdRange.of(connection, table, skew));
+        }
+
+        LoadTest loadTest = new LoadTest(options.string("base-url", "http://localhost:8080"),
+                options.string("accept", "application/json"), parseMix(options.string("mix", DEFAULT_MIX)), idRanges);
+        System.out.printf("%d threads, %s, warmup %d s, measurement %d s%n", threads,
+                rate > 0 ? rate + " requests/s" : "as fast as possible", warmup.toSeconds(), duration.toSeconds());
+
+        loadTest.run(threads, rate, warmup);
+        Worker[] workers = loadTest.run(threads, rate, duration);
+        List<Map<String, Object>> report = loadTest.report(workers, duration);
+
+        if (options.resultFile() != null) {
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(options.resultFile()), report);
+            System.out.println("Results written to " + options.resultFile());
+        }
+    }
+
+    private static List<Entry> parseMix(String mix) {
+        List<Entry> entries = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            int separator = part.lastIndexOf(':');
+            if (separator < 0)
+                throw new IllegalArgumentException("Mix entry " + part + " has no weight, use path:weight");
+            String path = part.substring(0, separator).trim().replaceFirst("^/+", "");
+            entries.add(new Entry(path, Integer.parseInt(part.substring(separator + 1).trim())));
+        }
+        return entries;
+    }
+
+    private Worker[] run(int threads, double rate, Duration duration) throws InterruptedException {
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        // With a rate, thread t sends its requests at start + (t + k * threads) * interval
+        long interval = rate > 0 ? (long) (1e9 / rate) : 0;
+
+        Worker[] workers = new Worker[threads];
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(start + t * interval, interval * threads, end);
+            running[t] = new Thread(workers[t], "load-" + t);
+            running[t].start();
+        }
+        for (Thread thread : running)
+            thread.join();
+        return workers;
+    }
+
+    private List<Map<String, Object>> report(Worker[] workers, Duration duration) {
+        List<Map<String, Object>> report = new ArrayList<>();
+        System.out.printf("%n%-40s %9s %9s %6s %6s %6s %9s %9s %9s %9s %9s%n", "endpoint", "requests", "req/s", "3xx",
+                "404", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        long[] allCounts = new long[3];
+        for (int i = 0; i < mix.size(); i++) {
+            Histogram histogram = new Histogram(HIGHEST_LATENCY, 3);
+            long[] counts = new long[3];
+            for (Worker worker : workers) {
+                histogram.add(worker.histograms[i]);
+                for (int c = 0; c < counts.length; c++)
+                    counts[c] += worker.counts[i][c];
+            }
+            all.add(histogram);
+            for (int c = 0; c < counts.length; c++)
+                allCounts[c] += counts[c];
+            report.add(line(mix.get(i).path, histogram, counts, duration));
+        }
+        report.add(line("total", all, allCounts, duration));
+        return report;
+    }
+
+    private static Map<String, Object> line(String name, Histogram histogram, long[] counts, Duration duration) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("endpoint", name);
+        line.put("requests", histogram.getTotalCount());
+        line.put("throughput", histogram.getTotalCount() / (double) duration.toSeconds());
+        line.put("notModified", counts[0]);
+        line.put("notFound", counts[1]);
+        line.put("errors", counts[2]);
+        line.put("p50", histogram.getValueAtPercentile(50) / 1000.0);
+        line.put("p90", histogram.getValueAtPercentile(90) / 1000.0);
+        line.put("p99", histogram.getValueAtPercentile(99) / 1000.0);
+        line.put("p99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
+        line.put("max", histogram.getMaxValue() / 1000.0);
+
+        System.out.printf("%-40s %9d %9.1f %6d %6d %6d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name, line.get("requests"),
+                line.get("throughput"), counts[0], counts[1], counts[2], line.get("p50"), line.get("p90"),
+                line.get("p99"), line.get("p99.9"), line.get("max"));
+        return line;
+    }
+
+    private int pickEntry(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < mix.size(); i++) {
+            value -= mix.get(i).weight;
+            if (value < 0)
+                return i;
+        }
+        return mix.size() - 1;
+    }
+
+    private String resolve(String path, Random random) {
+        Matcher matcher = PLACEHOLDER.matcher(path);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            String value = switch (name) {
+                case "books" -> {
+                    StringJoiner ids = new StringJoiner(",");
+                    for (int i = 0; i < 10; i++)
+                        ids.add(Long.toString(idRanges.get("book").next(random)));
+                    yield ids.toString();
+                }
+                case "page" -> Integer.toString(pages.next(random));
+                case "word" -> DataGenerator.TITLE_WORDS[random.nextInt(DataGenerator.TITLE_WORDS.length)];
+                default -> {
+                    IdRange range = idRanges.get(name);
+                    if (range == null)
+                        throw new IllegalArgumentException("Unknown placeholder {" + name + "} in " + path);
+                    yield Long.toString(range.next(random));
+                }
+            };
+            matcher.appendReplacement(resolved, value);
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private static final class Entry {
+
+        private final String path;
+
+        private final int weight;
+
+        private Entry(String path, int weight) {
+            this.path = path;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * The ids of a table, drawn with a Zipf distribution over a random (but fixed) order of the ids.
+     */
+    private static final class IdRange {
+
+        private final long min;
+
+        private final int size;
+
+        private final Zipf zipf;
+
+        private final long offset;
+
+        private IdRange(long min, long max, double skew) {
+            this.min = min;
+            this.size = (int) Math.min(Integer.MAX_VALUE, max - min + 1);
+            this.zipf = new Zipf(size, skew);
+            this.offset = new Random(min ^ max).nextInt(size);
+        }
+
+        static IdRange of(Connection connection, String table, double skew) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("select min(id), max(id) from " + table)) {
+                resultSet.next();
+                long min = resultSet.getLong(1);
+                long max = resultSet.getLong(2);
+                return new IdRange(min, Math.max(min, max), skew);
+            }
+        }
+
+        long next(Random random) {
+            // Multiplying by a large odd constant spreads the popular ranks over the whole range
+            long rank = zipf.next(random);
+            return min + Math.floorMod(rank * 0x9E3779B1L + offset, size);
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final Histogram[] histograms = new Histogram[mix.size()];
+
+        /**
+         * Per entry: the number of 304, 404 and other error responses
+         */
+        private final long[][] counts = new long[mix.size()][3];
+
+        private final long firstStart;
+
+        private final long interval;
+
+        private final long end;
+
+        private Worker(long firstStart, long interval, long end) {
+            this.firstStart = firstStart;
+            this.interval = interval;
+            this.end = end;
+            for (int i = 0; i < histograms.length; i++)
+                histograms[i] = new Histogram(HIGHEST_LATENCY, 3);
+        }
+
+        @Override
+        public void run() {
+            Random random = ThreadLocalRandom.current();
+            long scheduled = firstStart;
+            while (true) {
+                long start = System.nanoTime();
+                if (interval > 0) {
+                    if (scheduled - start > 0)
+                        LockSupport.parkNanos(scheduled - start);
+                    start = scheduled;
+                    scheduled += interval;
+                }
+                if (start - end >= 0)
+                    return;
+
+                int entry = pickEntry(random);
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + resolve(mix.get(entry).path, random)))
+                        .header("Accept", accept)
+                        .timeout(Duration.ofSeconds(30))
+                        .GET()
+                        .build();
+                int status;
+                try {
+                    status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                } catch (IOException e) {
+                    status = 0;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                histograms[entry].recordValue(Math.min(latency, HIGHEST_LATENCY));
+                if (status == 304)
+                    counts[entry][0]++;
+                else if (status == 404)
+                    counts[entry][1]++;
+                else if (status < 200 || status >= 400)
+                    counts[entry][2]++;
+            }
+        }
+    }
+}
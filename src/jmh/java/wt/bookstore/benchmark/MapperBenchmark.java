@@ -0,0 +1,78 @@
+package wt.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Loan;
+import wt.bookstore.backend.domains.Reservation;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.mapping.BookDtoMapper;
+import wt.bookstore.backend.mapping.LoanDtoMapper;
+import wt.bookstore.backend.mapping.ReservationDtoMapper;
+import wt.bookstore.backend.mapping.UserDtoMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the entity to DTO conversions of the *DtoMapper classes, per list of {@link #size} entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private final BookDtoMapper bookMapper = new BookDtoMapper();
+
+    private final LoanDtoMapper loanMapper = new LoanDtoMapper();
+
+    private final ReservationDtoMapper reservationMapper = new ReservationDtoMapper();
+
+    private final UserDtoMapper userMapper = new UserDtoMapper();
+
+    private List<Book> books;
+
+    private List<Loan> loans;
+
+    private List<Reservation> reservations;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        books = BenchmarkData.books(size);
+        loans = BenchmarkData.loans(size);
+        reservations = BenchmarkData.reservations(size);
+        users = BenchmarkData.users(size);
+    }
+
+    @Benchmark
+    public void bookToDto(Blackhole blackhole) {
+        for (Book book : books)
+            blackhole.consume(bookMapper.bookToDto(book));
+    }
+
+    @Benchmark
+    public void loanToDto(Blackhole blackhole) {
+        for (Loan loan : loans)
+            blackhole.consume(loanMapper.loanToDto(loan));
+    }
+
+    @Benchmark
+    public void reservationToDto(Blackhole blackhole) {
+        for (Reservation reservation : reservations)
+            blackhole.consume(reservationMapper.reservationToDto(reservation));
+    }
+
+    @Benchmark
+    public void userToDto(Blackhole blackhole) {
+        for (User user : users)
+            blackhole.consume(userMapper.userToDto(user));
+    }
+}
@@ -0,0 +1,70 @@
+package wt.bookstore.benchmark;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of the form {@code --name=value}, for the tools that are started through the benchmark profile
+ * with {@code -Dbenchmark.mainClass}. That profile always passes the JMH result options {@code -rf json -rff <file>};
+ * the file is kept as {@link #resultFile()}, the format is ignored.
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private String resultFile;
+
+    Options(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-rf") && i + 1 < args.length) {
+                i++;
+            } else if (arg.equals("-rff") && i + 1 < args.length) {
+                resultFile = args[++i];
+            } else if (arg.startsWith("--")) {
+                int separator = arg.indexOf('=');
+                if (separator < 0)
+                    values.put(arg.substring(2), "true");
+                else
+                    values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Unknown argument " + arg + ", options look like --name=value");
+            }
+        }
+    }
+
+    String string(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value.replace("_", ""));
+    }
+
+    double decimal(String name, double defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    /**
+     * A duration in seconds, or with a unit: 500ms, 30s, 5m.
+     */
+    Duration duration(String name, Duration defaultValue) {
+        String value = values.get(name);
+        if (value == null)
+            return defaultValue;
+        if (value.endsWith("ms"))
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        if (value.endsWith("m"))
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        if (value.endsWith("s"))
+            value = value.substring(0, value.length() - 1);
+        return Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    String resultFile() {
+        return resultFile;
+    }
+}
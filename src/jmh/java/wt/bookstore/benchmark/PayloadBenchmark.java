@@ -0,0 +1,92 @@
+package wt.bookstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wt.bookstore.backend.domains.Loan;
+import wt.bookstore.backend.dto.CompactListDto;
+import wt.bookstore.backend.dto.CompactLoanDto;
+import wt.bookstore.backend.dto.LoanDto;
+import wt.bookstore.backend.mapping.LoanDtoMapper;
+import wt.bookstore.backend.mapping.StringDictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Size and serialization time of the loan list in every response format: JSON, CBOR and Smile, each as the plain list
+ * of {@link LoanDto}'s and as the dictionary-encoded list of loan/compact, with and without gzip. The sizes in bytes
+ * are printed once per trial; the benchmarks measure the time to map and write a response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PayloadBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+
+    private LoanDtoMapper loanMapper;
+
+    private List<Loan> loans;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory).build();
+        loanMapper = new LoanDtoMapper();
+        loans = BenchmarkData.loans(size);
+
+        System.out.printf("%n%s, %d loans: list %d bytes (gzip %d), compact %d bytes (gzip %d)%n", format, size,
+                list().length, gzip(list()).length, compact().length, gzip(compact()).length);
+    }
+
+    @Benchmark
+    public byte[] list() throws IOException {
+        List<LoanDto> loanDtos = loans.stream().map(loanMapper::loanToDto).toList();
+        return objectMapper.writeValueAsBytes(loanDtos);
+    }
+
+    @Benchmark
+    public byte[] compact() throws IOException {
+        StringDictionary strings = new StringDictionary();
+        List<CompactLoanDto> loanDtos = loans.stream().map(loan -> loanMapper.loanToCompactDto(loan, strings)).toList();
+        return objectMapper.writeValueAsBytes(new CompactListDto<>(strings.getStrings(), loanDtos));
+    }
+
+    @Benchmark
+    public byte[] listGzip() throws IOException {
+        return gzip(list());
+    }
+
+    @Benchmark
+    public byte[] compactGzip() throws IOException {
+        return gzip(compact());
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
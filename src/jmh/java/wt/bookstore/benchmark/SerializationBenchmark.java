@@ -0,0 +1,63 @@
+package wt.bookstore.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import wt.bookstore.backend.dto.BookDto;
+import wt.bookstore.backend.dto.LoanDto;
+import wt.bookstore.backend.mapping.BookDtoMapper;
+import wt.bookstore.backend.mapping.LoanDtoMapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the list endpoints, with an ObjectMapper configured the way Spring Boot configures the one
+ * that writes the responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private List<BookDto> books;
+
+    private List<LoanDto> loans;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        BookDtoMapper bookMapper = new BookDtoMapper();
+        LoanDtoMapper loanMapper = new LoanDtoMapper();
+        books = BenchmarkData.books(size).stream().map(bookMapper::bookToDto).toList();
+        loans = BenchmarkData.loans(size).stream().map(loanMapper::loanToDto).toList();
+    }
+
+    /**
+     * A Stream of BookDto's, as the book endpoints returned before they were changed to return a List. Kept to compare
+     * against {@link #bookDtoList()}.
+     */
+    @Benchmark
+    public byte[] bookDtoStream() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books.stream());
+    }
+
+    @Benchmark
+    public byte[] bookDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(books);
+    }
+
+    @Benchmark
+    public byte[] loanDtoList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loans);
+    }
+}
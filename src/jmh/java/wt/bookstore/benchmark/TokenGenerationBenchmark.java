@@ -0,0 +1,71 @@
+package wt.bookstore.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import wt.bookstore.backend.controllers.UserController;
+import wt.bookstore.backend.security.TokenGenerator;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link TokenGenerator} with the way login tokens were generated before it existed
+ * ({@link #legacyGenerateRandomString(int)}). Run with {@code -prof gc} to compare allocation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenGenerationBenchmark {
+
+    @Param({"60"})
+    private int length;
+
+    private TokenGenerator tokenGenerator;
+
+    private UserController userController;
+
+    @Setup
+    public void setUp() {
+        tokenGenerator = new TokenGenerator();
+        userController = new UserController();
+        ReflectionTestUtils.setField(userController, "tokenGenerator", tokenGenerator);
+    }
+
+    @Benchmark
+    public String tokenGenerator() {
+        return tokenGenerator.generate(length);
+    }
+
+    @Benchmark
+    public String userControllerGenerateRandomString() {
+        return userController.generateRandomString(length);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String tokenGeneratorContended() {
+        return tokenGenerator.generate(length);
+    }
+
+    @Benchmark
+    public String legacy() {
+        return legacyGenerateRandomString(length);
+    }
+
+    /**
+     * The original UserController.generateRandomString.
+     */
+    static String legacyGenerateRandomString(int targetStringLength) {
+        int leftLimit = 48; // letter 'a'
+        int rightLimit = 122; // letter 'z'
+        Random random = new Random();
+        return random.ints(leftLimit, rightLimit + 1)
+                .filter(i -> (i <= 57 || i >= 65) && (i <= 90 || i >= 97))
+                .limit(targetStringLength)
+                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
+                .toString();
+    }
+}
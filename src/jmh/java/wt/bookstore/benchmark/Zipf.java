@@ -0,0 +1,31 @@
+package wt.bookstore.benchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks 0..n-1 with a Zipf distribution: rank k is drawn with a probability proportional to 1 / (k + 1)^skew.
+ * With a skew around 1 a few books, users and keywords get most of the traffic, like in a real library.
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double skew) {
+        if (n < 1)
+            throw new IllegalArgumentException("Zipf distribution needs at least one rank");
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            cumulative[k] = sum;
+        }
+        for (int k = 0; k < n; k++)
+            cumulative[k] /= sum;
+    }
+
+    int next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package wt.bookstore.backend.audit;
+
+import wt.bookstore.backend.domains.*;
+
+import java.util.Locale;
+
+/**
+ * The kinds of entities that are audited, with the code they are stored under in the {@link AuditJournal}. Codes are
+ * part of the file format: never change or reuse them.
+ */
+public enum AuditEntity {
+
+    BOOK(1, Book.class),
+    COPY(2, Copy.class),
+    KEYWORD(3, Keyword.class),
+    LOAN(4, Loan.class),
+    RESERVATION(5, Reservation.class),
+    USER(6, User.class);
+
+    private final byte code;
+
+    private final Class<?> entityClass;
+
+    AuditEntity(int code, Class<?> entityClass) {
+        this.code = (byte) code;
+        this.entityClass = entityClass;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return the name used in the audit endpoint, e.g. "book"
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the kind of entities of the given class, or null if they are not audited
+     */
+    public static AuditEntity of(Class<?> type) {
+        for (AuditEntity auditEntity : values())
+            if (auditEntity.entityClass.isAssignableFrom(type))
+                return auditEntity;
+        return null;
+    }
+
+    /**
+     * @return the kind with the given code, or null if there is none
+     */
+    public static AuditEntity fromCode(byte code) {
+        for (AuditEntity auditEntity : values())
+            if (auditEntity.code == code)
+                return auditEntity;
+        return null;
+    }
+
+    /**
+     * @return the kind with the given name, or null if there is none
+     */
+    public static AuditEntity fromName(String name) {
+        for (AuditEntity auditEntity : values())
+            if (auditEntity.getName().equals(name))
+                return auditEntity;
+        return null;
+    }
+}
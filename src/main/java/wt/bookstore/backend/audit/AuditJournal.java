@@ -0,0 +1,317 @@
+package wt.bookstore.backend.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+import wt.bookstore.backend.security.UserSession;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of the changes to the audited entities, see {@link AuditRecord}.
+ *
+ * Recording a change only puts it on a bounded queue, so it costs the request next to nothing. A single writer thread
+ * takes everything that is queued at once, appends it to the memory-mapped current segment and then syncs the segment
+ * to disk once for the whole group. When the queue is full, records are dropped and counted in
+ * {@code bookstore.audit.dropped}, rather than slowing down the requests.
+ *
+ * The journal is a directory of segment files of a fixed size, named after their sequence number. When a segment is
+ * full, the writer continues in the next one. Every segment starts with a header of one record size:
+ * <pre>
+ * offset  0  int    magic "AUDT"
+ * offset  4  short  format version, 1
+ * offset  6  short  record size
+ * offset  8  long   earliest commit time in the segment
+ * offset 16  long   latest commit time in the segment
+ * offset 24  long   number of records
+ * </pre>
+ * The header is updated after every group, so readers can skip segments outside the time range they look for. After a
+ * restart the writer continues after the last complete record of the last segment.
+ */
+@Component
+public class AuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+
+    static final int MAGIC = 0x41554454;
+
+    static final short VERSION = 1;
+
+    static final int HEADER_SIZE = AuditRecord.SIZE;
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    @Value("${bookstore.audit.directory:audit}")
+    private String directory;
+
+    @Value("${bookstore.audit.segment-size-bytes:67108864}")
+    private int segmentSize;
+
+    @Value("${bookstore.audit.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${bookstore.audit.max-group-size:4096}")
+    private int maxGroupSize;
+
+    /**
+     * Whether every group is synced to disk. Without it, the operating system writes the pages back when it sees fit.
+     */
+    @Value("${bookstore.audit.sync:true}")
+    private boolean sync;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Path path;
+
+    private BlockingQueue<AuditRecord> queue;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    /*
+     * The current segment, only used by the writer thread once it runs
+     */
+
+    private MappedByteBuffer segment;
+
+    private long segmentNumber;
+
+    private int position;
+
+    private long count;
+
+    private long earliest;
+
+    private long latest;
+
+    @PostConstruct
+    void start() throws IOException {
+        path = Path.of(directory);
+        Files.createDirectories(path);
+        segmentSize = Math.max(2, segmentSize / AuditRecord.SIZE) * AuditRecord.SIZE;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        openLastSegment();
+
+        Gauge.builder("bookstore.audit.queue", queue, BlockingQueue::size)
+                .description("Audit records waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("bookstore.audit.dropped", dropped, AtomicLong::get)
+                .description("Audit records dropped because the queue was full")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::writeGroups, "audit-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes what is still queued, and stops the writer.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Records a committed change, made by the user of the current request if it has a session.
+     */
+    public void record(AuditEntity entity, AuditOperation operation, long entityId) {
+        AuditRecord record = new AuditRecord(System.currentTimeMillis(), entity, operation, entityId, currentUserId());
+        if (!queue.offer(record) && dropped.getAndIncrement() % 1000 == 0)
+            log.warn("The audit queue is full, dropped {} records so far", dropped.get());
+    }
+
+    /**
+     * Scans the journal for records committed between from and to (inclusive, epoch milliseconds), of the given kind of
+     * entity and entity id if they are not null, in the order they were written. Records that are still queued are
+     * not found yet.
+     * @param limit maximum number of records to return
+     */
+    public List<AuditRecord> scan(long from, long to, AuditEntity entity, Long entityId, int limit) {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path file : segments()) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+                    continue;
+                long recordCount = buffer.getLong(24);
+                if (recordCount == 0 || buffer.getLong(16) < from || buffer.getLong(8) > to)
+                    continue;
+
+                long end = Math.min(buffer.capacity(), HEADER_SIZE + recordCount * AuditRecord.SIZE);
+                for (int offset = HEADER_SIZE; offset + AuditRecord.SIZE <= end; offset += AuditRecord.SIZE) {
+                    AuditRecord record = AuditRecord.readFrom(buffer, offset);
+                    if (record == null || record.getTimestamp() < from || record.getTimestamp() > to)
+                        continue;
+                    if (entity != null && record.getEntity() != entity)
+                        continue;
+                    if (entityId != null && record.getEntityId() != entityId)
+                        continue;
+                    records.add(record);
+                    if (records.size() >= limit)
+                        return records;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return records;
+    }
+
+    private void writeGroups() {
+        List<AuditRecord> group = new ArrayList<>(maxGroupSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                group.add(first);
+                queue.drainTo(group, maxGroupSize - 1);
+                append(group);
+            } catch (InterruptedException e) {
+                running = false;
+            } catch (Exception e) {
+                log.error("Could not write {} audit records", group.size(), e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void append(List<AuditRecord> group) throws IOException {
+        for (AuditRecord record : group) {
+            if (position + AuditRecord.SIZE > segment.capacity())
+                nextSegment();
+            record.writeTo(segment, position);
+            position += AuditRecord.SIZE;
+            count++;
+            earliest = Math.min(earliest, record.getTimestamp());
+            latest = Math.max(latest, record.getTimestamp());
+        }
+        writeHeader();
+        // Group commit: one sync for everything written since the last one
+        if (sync)
+            segment.force(0, position);
+    }
+
+    private void nextSegment() throws IOException {
+        writeHeader();
+        segment.force();
+        openSegment(segmentNumber + 1);
+        writeHeader();
+    }
+
+    /**
+     * Continues in the last segment after its last complete record, or starts the first segment.
+     */
+    private void openLastSegment() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            openSegment(1);
+            writeHeader();
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        long number = Long.parseLong(last.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+        openSegment(number);
+        if (segment.getInt(0) == 0) {
+            // Created, but stopped before anything was written
+            writeHeader();
+            return;
+        }
+        if (segment.getInt(0) != MAGIC || segment.getShort(4) != VERSION
+                || segment.getShort(6) != AuditRecord.SIZE) {
+            log.warn("Audit segment {} has an unknown format, continuing in a new segment", last);
+            openSegment(number + 1);
+            writeHeader();
+            return;
+        }
+
+        count = segment.getLong(24);
+        earliest = count > 0 ? segment.getLong(8) : Long.MAX_VALUE;
+        latest = count > 0 ? segment.getLong(16) : Long.MIN_VALUE;
+        position = (int) Math.min(segment.capacity(), HEADER_SIZE + count * AuditRecord.SIZE);
+        // Records of the last group can be on disk without the header that counts them
+        AuditRecord record;
+        while (position + AuditRecord.SIZE <= segment.capacity()
+                && (record = AuditRecord.readFrom(segment, position)) != null) {
+            position += AuditRecord.SIZE;
+            count++;
+            earliest = Math.min(earliest, record.getTimestamp());
+            latest = Math.max(latest, record.getTimestamp());
+        }
+        writeHeader();
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path file = path.resolve(String.format("%020d%s", number, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // A segment that already exists keeps its size, even if the configured size changed
+            long size = channel.size() >= HEADER_SIZE + AuditRecord.SIZE ? channel.size() : segmentSize;
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        segmentNumber = number;
+        position = HEADER_SIZE;
+        count = 0;
+        earliest = Long.MAX_VALUE;
+        latest = Long.MIN_VALUE;
+    }
+
+    private void writeHeader() {
+        segment.putInt(0, MAGIC);
+        segment.putShort(4, VERSION);
+        segment.putShort(6, (short) AuditRecord.SIZE);
+        segment.putLong(8, earliest);
+        segment.putLong(16, latest);
+        segment.putLong(24, count);
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long currentUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+            return 0;
+        Object session = attributes.getAttribute(AuthenticationInterceptor.SESSION_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return session instanceof UserSession userSession ? userSession.getUserId() : 0;
+    }
+}
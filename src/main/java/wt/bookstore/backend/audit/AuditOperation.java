@@ -0,0 +1,41 @@
+package wt.bookstore.backend.audit;
+
+import java.util.Locale;
+
+/**
+ * What happened to an audited entity, with the code it is stored under in the {@link AuditJournal}. Codes are part of
+ * the file format: never change or reuse them.
+ */
+public enum AuditOperation {
+
+    CREATE(1),
+    UPDATE(2),
+    DELETE(3);
+
+    private final byte code;
+
+    AuditOperation(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return the name used in the audit endpoint, e.g. "create"
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the operation with the given code, or null if there is none
+     */
+    public static AuditOperation fromCode(byte code) {
+        for (AuditOperation operation : values())
+            if (operation.code == code)
+                return operation;
+        return null;
+    }
+}
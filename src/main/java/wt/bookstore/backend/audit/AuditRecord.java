@@ -0,0 +1,100 @@
+package wt.bookstore.backend.audit;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+
+/**
+ * One change to an audited entity: when it was committed, what changed and which user changed it.
+ *
+ * In the journal every record takes {@link #SIZE} bytes:
+ * <pre>
+ * offset  0  long   commit time, epoch milliseconds
+ * offset  8  long   entity id
+ * offset 16  long   user id, 0 without a session
+ * offset 24  byte   {@link AuditEntity} code
+ * offset 25  byte   {@link AuditOperation} code
+ * offset 26  short  0, reserved
+ * offset 28  int    CRC32C of bytes 0 to 27
+ * </pre>
+ * The checksum tells a complete record from one that was only partly on disk when the process stopped, and from the
+ * zeros after the last record of a segment.
+ */
+public final class AuditRecord {
+
+    public static final int SIZE = 32;
+
+    private static final int CHECKSUM_OFFSET = 28;
+
+    private final long timestamp;
+
+    private final AuditEntity entity;
+
+    private final AuditOperation operation;
+
+    private final long entityId;
+
+    private final long userId;
+
+    public AuditRecord(long timestamp, AuditEntity entity, AuditOperation operation, long entityId, long userId) {
+        this.timestamp = timestamp;
+        this.entity = entity;
+        this.operation = operation;
+        this.entityId = entityId;
+        this.userId = userId;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public AuditEntity getEntity() {
+        return entity;
+    }
+
+    public AuditOperation getOperation() {
+        return operation;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Writes the record at the given offset of the buffer, without moving its position.
+     */
+    void writeTo(ByteBuffer buffer, int offset) {
+        buffer.putLong(offset, timestamp);
+        buffer.putLong(offset + 8, entityId);
+        buffer.putLong(offset + 16, userId);
+        buffer.put(offset + 24, entity.getCode());
+        buffer.put(offset + 25, operation.getCode());
+        buffer.putShort(offset + 26, (short) 0);
+        buffer.putInt(offset + CHECKSUM_OFFSET, checksum(buffer, offset));
+    }
+
+    /**
+     * Reads the record at the given offset of the buffer, without moving its position.
+     * @return the record, or null if there is no complete record at the offset
+     */
+    static AuditRecord readFrom(ByteBuffer buffer, int offset) {
+        if (buffer.getInt(offset + CHECKSUM_OFFSET) != checksum(buffer, offset))
+            return null;
+
+        AuditEntity entity = AuditEntity.fromCode(buffer.get(offset + 24));
+        AuditOperation operation = AuditOperation.fromCode(buffer.get(offset + 25));
+        if (entity == null || operation == null)
+            return null;
+        return new AuditRecord(buffer.getLong(offset), entity, operation, buffer.getLong(offset + 8),
+                buffer.getLong(offset + 16));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,99 @@
+package wt.bookstore.backend.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the {@link AuditJournal} into Hibernate: every insert, update and delete of an audited entity is recorded once
+ * its transaction has committed, whichever endpoint made it. Changes that bypass the entities have to be recorded by
+ * the endpoint itself, like keywords created with JDBC and keywords added to or removed from a book (which only change
+ * the book_keywords collection, not the book).
+ */
+@Configuration
+public class HibernateAuditing {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, new InsertListener());
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, new UpdateListener());
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, new DeleteListener());
+    }
+
+    private void record(Object entity, Object id, AuditOperation operation) {
+        AuditEntity auditEntity = AuditEntity.of(entity.getClass());
+        if (auditEntity != null && id instanceof Long entityId)
+            auditJournal.record(auditEntity, operation, entityId);
+    }
+
+    private static boolean isAudited(EntityPersister persister) {
+        return AuditEntity.of(persister.getMappedClass()) != null;
+    }
+
+    private class InsertListener implements PostCommitInsertEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            record(event.getEntity(), event.getId(), AuditOperation.CREATE);
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // Nothing was committed, so there is nothing to audit
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return isAudited(persister);
+        }
+    }
+
+    private class UpdateListener implements PostCommitUpdateEventListener {
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            record(event.getEntity(), event.getId(), AuditOperation.UPDATE);
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing was committed, so there is nothing to audit
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return isAudited(persister);
+        }
+    }
+
+    private class DeleteListener implements PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            record(event.getEntity(), event.getId(), AuditOperation.DELETE);
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing was committed, so there is nothing to audit
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return isAudited(persister);
+        }
+    }
+}
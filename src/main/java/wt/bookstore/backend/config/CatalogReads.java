@@ -0,0 +1,99 @@
+package wt.bookstore.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import wt.bookstore.backend.datasource.DataSourceRouting;
+import wt.bookstore.backend.metrics.QueryCounter;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the database work of the catalog endpoints on the catalog thread pool, see
+ * {@link ExecutorConfig#catalogExecutor(int, int)}. The endpoints return the future, which releases the request thread
+ * until the result is there. The queries are counted for the request that submitted them, see {@link QueryCounter}.
+ * Every read is a read-only transaction, which goes to a replica if the request may read from one, see
+ * {@link DataSourceRouting}.
+ *
+ * A conditional read of data that changed less than {@code bookstore.datasource.read-your-writes-ms} ago goes to the
+ * primary: a replica that has not caught up yet would return the old data with the new ETag, and clients would keep
+ * revalidating that old data with a 304 until the next change.
+ */
+@Component
+public class CatalogReads {
+
+    @Autowired
+    @Qualifier("catalogExecutor")
+    private ThreadPoolTaskExecutor catalogExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Value("${bookstore.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMillis;
+
+    /**
+     * @return future with the result of the read, or a future that fails with a 503 {@link ResponseStatusException} if
+     * the catalog thread pool is saturated
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> read) {
+        return submit(read, DataSourceRouting.isReplicaAllowed());
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> read, boolean replicaAllowed) {
+        QueryCounter.QueryCounts counts = QueryCounter.current();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                QueryCounter.resume(counts);
+                DataSourceRouting.resume(replicaAllowed);
+                try {
+                    return readOnly.execute(status -> read.get());
+                } finally {
+                    QueryCounter.stop();
+                    DataSourceRouting.clear();
+                }
+            }, catalogExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The catalog is too busy"));
+        }
+    }
+
+    /**
+     * Conditional version of {@link #submit(Supplier)}: if the client already has the given version of the data, the
+     * read is skipped and the response is a 304. Otherwise the response carries the version as ETag. There is no
+     * Last-Modified header: Spring would answer If-Modified-Since with it, and a date cannot tell apart two changes
+     * within the same second.
+     * Take the version from the {@link CatalogVersions} before the read, so that it is never newer than the data.
+     */
+    public <T> CompletableFuture<ResponseEntity<T>> submit(HttpServletRequest request, CatalogVersions.Version version,
+                                                           Supplier<T> read) {
+        if (version.isNotModified(request))
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(version.getETag())
+                    .cacheControl(CacheControl.noCache())
+                    .build());
+        boolean replicaAllowed = DataSourceRouting.isReplicaAllowed()
+                && !catalogVersions.changedWithin(version, readYourWritesMillis);
+        return submit(() -> ResponseEntity.ok()
+                .eTag(version.getETag())
+                .cacheControl(CacheControl.noCache())
+                .body(read.get()), replicaAllowed);
+    }
+}
@@ -0,0 +1,140 @@
+package wt.bookstore.backend.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the books and keywords, as a whole and per id, for the ETag headers of the catalog endpoints. Every
+ * endpoint that changes what those endpoints return must report the change here, so that a client with an old version
+ * gets the new data instead of a 304.
+ *
+ * Changes take effect once the current transaction has ended: a new version that is visible before the data is
+ * committed could otherwise be handed out with the old data. Versions are only kept in memory. The ETags contain the
+ * start time of the application, so that they do not repeat after a restart.
+ *
+ * This only works with a single instance of the application: another instance does not see the changes made through
+ * this one, so it would answer 304 to an ETag of data that has changed since. Running more than one instance requires
+ * the versions to be kept in a shared store, such as the database.
+ */
+@Component
+public class CatalogVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The version of everything that did not change since the start of the application
+     */
+    private final Version initial = nextVersion();
+
+    private volatile Version books = initial;
+
+    private volatile Version keywords = initial;
+
+    private final Map<Long, Version> bookVersions = new ConcurrentHashMap<>();
+
+    private final Map<Long, Version> keywordVersions = new ConcurrentHashMap<>();
+
+    public Version books() {
+        return books;
+    }
+
+    public Version book(long id) {
+        return bookVersions.getOrDefault(id, initial);
+    }
+
+    public Version keywords() {
+        return keywords;
+    }
+
+    public Version keyword(long id) {
+        return keywordVersions.getOrDefault(id, initial);
+    }
+
+    /**
+     * Reports that a book was created, changed or deleted. This also changes the version of all books.
+     */
+    public void bookChanged(long id) {
+        TransactionCallbacks.afterCompletion(() -> {
+            Version version = nextVersion();
+            bookVersions.put(id, version);
+            books = version;
+        });
+    }
+
+    /**
+     * Reports that a keyword was created or deleted. This also changes the version of all keywords.
+     */
+    public void keywordChanged(long id) {
+        TransactionCallbacks.afterCompletion(() -> {
+            Version version = nextVersion();
+            keywordVersions.put(id, version);
+            keywords = version;
+        });
+    }
+
+    /**
+     * Reports that keywords were created, without saying which ones.
+     */
+    public void keywordsChanged() {
+        TransactionCallbacks.afterCompletion(() -> keywords = nextVersion());
+    }
+
+    /**
+     * @return whether the version is of a change that was made less than the given number of milliseconds ago. The
+     * version of what did not change since the start of the application is not.
+     */
+    public boolean changedWithin(Version version, long millis) {
+        return version != initial && version.getLastModified() > System.currentTimeMillis() - millis;
+    }
+
+    private Version nextVersion() {
+        return new Version("\"" + epoch + "-" + Long.toString(sequence.incrementAndGet(), 36) + "\"",
+                System.currentTimeMillis());
+    }
+
+    /**
+     * A strong ETag with the time it was created.
+     */
+    public static final class Version {
+
+        private final String eTag;
+
+        private final long lastModified;
+
+        private Version(String eTag, long lastModified) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return whether the client already has this version, according to the If-None-Match header of the request.
+         * If-Modified-Since is not used: two changes within the same second have the same HTTP date.
+         */
+        public boolean isNotModified(HttpServletRequest request) {
+            String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch == null)
+                return false;
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals(eTag) || tag.equals("W/" + eTag))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
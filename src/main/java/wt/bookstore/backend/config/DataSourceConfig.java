@@ -0,0 +1,40 @@
+package wt.bookstore.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import wt.bookstore.backend.datasource.ReadWriteRoutingDataSource;
+import wt.bookstore.backend.datasource.ReplicaDataSources;
+
+import javax.sql.DataSource;
+
+/**
+ * The data source of the application: the primary database of {@code spring.datasource}, plus the read replicas of
+ * {@link ReplicaDataSources} if there are any. See {@link ReadWriteRoutingDataSource} for which queries go where.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Connection pool of the primary database, configured like the pool Spring Boot would create: with the
+     * spring.datasource and spring.datasource.hikari properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSources replicaDataSources) {
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSources);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,83 @@
+package wt.bookstore.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Dedicated, bounded thread pools for work that should not run on (or exhaust) the Tomcat request threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Thread pool on which password hashes are verified. Hashing is CPU bound by design, so the pool is sized to the
+     * number of processors and its queue is bounded: a burst of logins is rejected instead of piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${bookstore.password.threads:0}") int threads,
+            @Value("${bookstore.password.queue-capacity:100}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        return executor;
+    }
+
+    /**
+     * Thread pool on which a login continues once the password was verified: storing the new token. This keeps database
+     * waits off the password hash pool. When its queue is full, the thread that verified the password does the work.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor loginExecutor(
+            @Value("${bookstore.login.threads:4}") int threads,
+            @Value("${bookstore.login.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("login-");
+        // A rejected continuation would leave the login future incomplete
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Thread pool on which the catalog endpoints (books and keywords) query the database: a bulkhead that keeps slow
+     * catalog queries from occupying every request thread. When the pool and its queue are full, catalog requests are
+     * answered with 503 while the other endpoints keep working.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor catalogExecutor(
+            @Value("${bookstore.catalog.threads:8}") int threads,
+            @Value("${bookstore.catalog.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("catalog-");
+        return executor;
+    }
+
+    /**
+     * Thread on which availability events are sent to their subscribers, so a write request does not wait for the
+     * fan-out. A single thread keeps the events of a book in order. When the queue is full, events are dropped.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor availabilityEventExecutor(
+            @Value("${bookstore.events.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("availability-events-");
+        return executor;
+    }
+}
@@ -0,0 +1,98 @@
+package wt.bookstore.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Fails startup when one of the indexes the queries of the repositories rely on is missing, instead of finding out
+ * from full table scans under load. The indexes are created by the migrations in db/migration (V2__indexes.sql).
+ *
+ * An index counts as present when the database has an index that starts with the same columns in the same order,
+ * whatever its name, so an index that was created by hand on an older database does as well.
+ */
+@Component
+public class SchemaIndexCheck {
+
+    /**
+     * The leading columns of the expected indexes, by table
+     */
+    static final Map<String, List<List<String>>> EXPECTED_INDEXES = Map.of(
+            "book", List.of(List.of("isbn")),
+            "copy", List.of(List.of("book_id", "available")),
+            "keyword", List.of(List.of("name")),
+            "book_keywords", List.of(List.of("book_id", "keyword_id"), List.of("keyword_id", "book_id")),
+            "loan", List.of(List.of("user_id", "start_date"), List.of("copy_id", "end_date")),
+            "reservation", List.of(List.of("user_id", "date"), List.of("book_id", "date")),
+            "user", List.of(List.of("email_address"), List.of("token")));
+
+    @Value("${bookstore.schema.check-indexes:true}")
+    private boolean enabled;
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Not used, but the entity manager factory is only created after the migrations ran
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void check() throws SQLException {
+        if (!enabled)
+            return;
+
+        List<String> missing = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, List<List<String>>> table : EXPECTED_INDEXES.entrySet()) {
+                Collection<List<String>> indexes = findIndexes(connection, metaData, table.getKey());
+                for (List<String> expected : table.getValue())
+                    if (indexes.stream().noneMatch(index -> startsWith(index, expected)))
+                        missing.add(table.getKey() + " (" + String.join(", ", expected) + ")");
+            }
+        }
+
+        if (!missing.isEmpty())
+            throw new IllegalStateException("Missing database indexes: " + String.join("; ", missing)
+                    + ". Run the migrations in db/migration, or set bookstore.schema.check-indexes=false.");
+    }
+
+    /**
+     * @return the columns of each index of the table, in index order
+     */
+    private static Collection<List<String>> findIndexes(Connection connection, DatabaseMetaData metaData, String table)
+            throws SQLException {
+        Map<String, SortedMap<Short, String>> columnsByIndex = new HashMap<>();
+        try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                false, false)) {
+            while (resultSet.next()) {
+                String index = resultSet.getString("INDEX_NAME");
+                String column = resultSet.getString("COLUMN_NAME");
+                if (index == null || column == null)
+                    continue;
+                columnsByIndex.computeIfAbsent(index, name -> new TreeMap<>())
+                        .put(resultSet.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        List<List<String>> indexes = new ArrayList<>();
+        for (SortedMap<Short, String> columns : columnsByIndex.values())
+            indexes.add(new ArrayList<>(columns.values()));
+        return indexes;
+    }
+
+    private static boolean startsWith(List<String> index, List<String> columns) {
+        return index.size() >= columns.size() && index.subList(0, columns.size()).equals(columns);
+    }
+}
@@ -0,0 +1,85 @@
+package wt.bookstore.backend.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Defers work until the current transaction has ended. Without a transaction the work runs right away, so the same code
+ * works in an endpoint that is called on its own and in one that runs inside a larger transaction, like the
+ * operations of a batch.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs the work after the current transaction has committed, and not at all if it rolls back. For in-memory state
+     * that mirrors the database, like the indexes of the recommendations and the keyword popularity.
+     */
+    public static void afterCommit(Runnable work) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            work.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new AfterCommit(work));
+    }
+
+    /**
+     * Runs the work, and when it fails drops the {@link #afterCommit(Runnable)} work it deferred, so the caller can roll
+     * back to a savepoint and let the rest of the transaction commit without it. For the operations of a batch.
+     */
+    public static <T> T discardOnFailure(Supplier<T> work) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            return work.get();
+
+        List<TransactionSynchronization> before = TransactionSynchronizationManager.getSynchronizations();
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            // Synchronizations can not be removed one by one, so the ones to keep are registered again
+            List<TransactionSynchronization> after = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.initSynchronization();
+            for (TransactionSynchronization synchronization : after) {
+                if (!(synchronization instanceof AfterCommit) || before.contains(synchronization))
+                    TransactionSynchronizationManager.registerSynchronization(synchronization);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the work after the current transaction has ended, whether it committed or rolled back. For invalidations
+     * that are harmless when nothing changed, like cache evictions and new ETags.
+     */
+    public static void afterCompletion(Runnable work) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            work.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                work.run();
+            }
+        });
+    }
+
+    private static final class AfterCommit implements TransactionSynchronization {
+
+        private final Runnable work;
+
+        private AfterCommit(Runnable work) {
+            this.work = work;
+        }
+
+        @Override
+        public void afterCommit() {
+            work.run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package wt.bookstore.backend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import wt.bookstore.backend.datasource.ReplicaRoutingInterceptor;
+import wt.bookstore.backend.metrics.QueryDiagnosticsInterceptor;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+
+/**
+ * Spring MVC configuration of the backend.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AuthenticationInterceptor authenticationInterceptor;
+
+    @Autowired
+    private QueryDiagnosticsInterceptor queryDiagnosticsInterceptor;
+
+    @Autowired
+    private ReplicaRoutingInterceptor replicaRoutingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // First, so the queries of the other interceptors are counted as well
+        registry.addInterceptor(queryDiagnosticsInterceptor);
+        registry.addInterceptor(authenticationInterceptor);
+        // After the authentication, so clients with a session are recognized by their user
+        registry.addInterceptor(replicaRoutingInterceptor);
+    }
+
+    /*
+     * Binary response formats, for clients that ask for them in the Accept header. JSON stays the default. The
+     * converters are built with the ObjectMapper settings of Spring Boot, so dates are written like in the JSON.
+     */
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,67 @@
+package wt.bookstore.backend.controllers;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import wt.bookstore.backend.audit.AuditEntity;
+import wt.bookstore.backend.audit.AuditJournal;
+import wt.bookstore.backend.dto.AuditRecordDto;
+import wt.bookstore.backend.mapping.AuditRecordDtoMapper;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+import wt.bookstore.backend.security.UserSession;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The controller class that sets the API endpoint for reading the {@link AuditJournal}. Only administrators can read
+ * it.
+ */
+@RestController
+@CrossOrigin(maxAge = 3600)
+public class AuditController {
+
+    private static final int MAX_LIMIT = 10000;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    @Autowired
+    private AuditRecordDtoMapper auditRecordMapper;
+
+    /**
+     * Returns the creates, updates and deletes that were committed in a time range, oldest first, for a GET request to
+     * {database_location}/audit?from=2023-03-01T00:00:00Z&to=2023-04-01T00:00:00Z&entity=book&entityId=1. All
+     * parameters are optional.
+     * @param entity kind of entity: book, copy, keyword, loan, reservation or user
+     * @param limit (int) maximum number of records to return, 1000 by default
+     * @return List of {@link wt.bookstore.backend.dto.AuditRecordDto}'s
+     */
+    @GetMapping("audit")
+    public List<AuditRecordDto> find(@RequestParam(required = false) Instant from,
+                                     @RequestParam(required = false) Instant to,
+                                     @RequestParam(required = false) String entity,
+                                     @RequestParam(required = false) Long entityId,
+                                     @RequestParam(defaultValue = "1000") int limit,
+                                     HttpServletRequest request) {
+        Object session = request.getAttribute(AuthenticationInterceptor.SESSION_ATTRIBUTE);
+        if (!(session instanceof UserSession userSession))
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Log in to read the audit journal");
+        if (!userSession.isAdmin())
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only administrators can read the audit journal");
+
+        AuditEntity auditEntity = null;
+        if (entity != null) {
+            auditEntity = AuditEntity.fromName(entity);
+            if (auditEntity == null)
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown entity: " + entity);
+        }
+
+        return auditJournal.scan(from != null ? from.toEpochMilli() : 0,
+                        to != null ? to.toEpochMilli() : Long.MAX_VALUE,
+                        auditEntity, entityId, Math.max(1, Math.min(limit, MAX_LIMIT)))
+                .stream().map(auditRecordMapper::auditRecordToDto).toList();
+    }
+}
@@ -0,0 +1,47 @@
+package wt.bookstore.backend.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import wt.bookstore.backend.events.AvailabilityEvents;
+import wt.bookstore.backend.repository.IBookRepository;
+
+/**
+ * The controller class that sets the API endpoints for the server-sent events of {@link AvailabilityEvents}: changes to
+ * the copies, loans and reservations of books, as they are committed. Clients that show whether a book is available
+ * subscribe here instead of polling the copy and book endpoints.
+ */
+@RestController
+@CrossOrigin(maxAge = 3600)
+public class AvailabilityEventController {
+
+    @Autowired
+    private AvailabilityEvents availabilityEvents;
+
+    @Autowired
+    private IBookRepository bookRepository;
+
+    /**
+     * Streams the {@link wt.bookstore.backend.dto.AvailabilityEventDto}'s of all books for a GET request to
+     * {database_location}/events.
+     */
+    @GetMapping(value = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return availabilityEvents.subscribe(null);
+    }
+
+    /**
+     * Streams the {@link wt.bookstore.backend.dto.AvailabilityEventDto}'s of the book with a certain id for a GET request
+     * to {database_location}/book/{id}/events.
+     * @param id (long) of the book you want the events of.
+     */
+    @GetMapping(value = "book/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable long id) {
+        if (!bookRepository.existsById(id))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Book not found");
+        return availabilityEvents.subscribe(id);
+    }
+}
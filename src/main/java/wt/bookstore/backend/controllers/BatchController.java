@@ -0,0 +1,359 @@
+package wt.bookstore.backend.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import wt.bookstore.backend.config.TransactionCallbacks;
+import wt.bookstore.backend.dto.*;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.util.*;
+
+/**
+ * Runs a list of write operations on the other controllers in a single request, for the admin screens that would
+ * otherwise send dozens of small POST, PUT and DELETE requests. The operations run in one transaction, so entities
+ * that several operations need are loaded once, and the changes are committed once.
+ *
+ * In atomic mode a failing operation rolls back the whole batch. Otherwise only the failed operation is rolled back, to
+ * a savepoint, and the others are committed. A failure that Hibernate or Spring mark the whole transaction rollback-only
+ * for costs one more transaction, see {@link #runInTransaction}.
+ */
+@RestController
+@CrossOrigin(maxAge = 3600)
+public class BatchController {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchController.class);
+
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    @Autowired
+    private BookController bookController;
+
+    @Autowired
+    private CopyController copyController;
+
+    @Autowired
+    private KeywordController keywordController;
+
+    @Autowired
+    private LoanController loanController;
+
+    @Autowired
+    private ReservationController reservationController;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${bookstore.batch.max-operations:500}")
+    private int maxOperations;
+
+    private final List<Route> routes = new ArrayList<>();
+
+    /**
+     * The operations a batch can contain: the write endpoints of the other controllers, with the same paths and bodies.
+     */
+    @PostConstruct
+    void registerRoutes() {
+        route("POST", "book/create", (variables, body) -> {
+            bookController.create(body(body, SaveBookDto.class));
+            return null;
+        });
+        route("PUT", "book/{id}", (variables, body) -> {
+            bookController.update(id(variables, "id"), body(body, ChangeBookDto.class));
+            return null;
+        });
+        route("DELETE", "book/{id}", (variables, body) -> {
+            bookController.delete(id(variables, "id"));
+            return null;
+        });
+
+        route("POST", "copy/create", (variables, body) -> copyController.create(body(body, SaveCopyDto.class)));
+        route("PUT", "copy/{id}/available", (variables, body) -> {
+            copyController.updateAvailable(id(variables, "id"), body(body, ChangeCopyDto.class));
+            return null;
+        });
+        route("DELETE", "copy/{id}", (variables, body) -> {
+            copyController.delete(id(variables, "id"));
+            return null;
+        });
+
+        route("POST", "keyword/create", (variables, body) -> keywordController.create(body(body, SaveKeywordDto.class)));
+        route("POST", "keyword/create/bulk", (variables, body) ->
+                keywordController.createBulk(Arrays.asList(body(body, SaveKeywordDto[].class))));
+        route("DELETE", "keyword/{id}/book/{bookId}", (variables, body) ->
+                keywordController.untag(id(variables, "id"), id(variables, "bookId")));
+        route("DELETE", "keyword/{id}", (variables, body) -> {
+            keywordController.delete(id(variables, "id"));
+            return null;
+        });
+
+        route("POST", "loan/create", (variables, body) -> loanController.create(body(body, SaveLoanDto.class)));
+        route("POST", "loan/create/fromreservation", (variables, body) -> {
+            loanController.createFromReservation(body(body, SaveReservationDto.class));
+            return null;
+        });
+        route("PUT", "loan/{id}", (variables, body) -> {
+            loanController.update(id(variables, "id"), body(body, ChangeLoanDto.class));
+            return null;
+        });
+        route("DELETE", "loan/{id}", (variables, body) -> {
+            loanController.delete(id(variables, "id"));
+            return null;
+        });
+
+        route("POST", "reservation/create", (variables, body) ->
+                reservationController.create(body(body, SaveReservationDto.class)));
+        route("PUT", "reservation/{id}/date", (variables, body) -> {
+            reservationController.updateDate(id(variables, "id"), body(body, ChangeReservationDto.class));
+            return null;
+        });
+        route("PUT", "reservation/{id}", (variables, body) ->
+                reservationController.update(id(variables, "id"), body(body, SaveReservationDto.class)));
+        route("DELETE", "reservation/{id}", (variables, body) -> reservationController.delete(id(variables, "id")));
+
+        route("POST", "user/create", (variables, body) -> {
+            userController.create(body(body, SaveUserDto.class));
+            return null;
+        });
+        route("PUT", "user/{id}", (variables, body) -> {
+            userController.update(id(variables, "id"), body(body, ChangeUserDto.class));
+            return null;
+        });
+        route("DELETE", "user/{id}", (variables, body) -> {
+            userController.delete(id(variables, "id"));
+            return null;
+        });
+    }
+
+    /**
+     * Runs the operations of a batch for a POST request to {database_location}/batch.
+     * @return the result of every operation, in the order of the request
+     */
+    @PostMapping("batch")
+    public BatchResultDto execute(@RequestBody BatchRequestDto batchRequestDto) {
+        List<BatchOperationDto> operations = batchRequestDto.getOperations();
+        if (operations.size() > maxOperations)
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "A batch can contain at most " + maxOperations + " operations");
+
+        BatchOperationResultDto[] results = new BatchOperationResultDto[operations.size()];
+        List<Integer> all = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++)
+            all.add(i);
+        // Lists of operations that each run in a transaction of their own
+        Deque<List<Integer>> transactions = new ArrayDeque<>();
+        transactions.add(all);
+
+        BatchResultDto batchResultDto = new BatchResultDto();
+        while (!transactions.isEmpty()) {
+            List<Integer> pending = transactions.poll();
+            if (pending.isEmpty())
+                continue;
+
+            int failed;
+            try {
+                failed = runInTransaction(operations, pending, results, batchRequestDto.isAtomic());
+            } catch (RuntimeException e) {
+                // The commit itself failed, this cannot be attributed to a single operation
+                log.warn("Batch of {} operations failed to commit", pending.size(), e);
+                for (int index : pending) {
+                    if (succeeded(results[index]))
+                        results[index] = new BatchOperationResultDto(HttpStatus.INTERNAL_SERVER_ERROR.value(), null,
+                                "The batch could not be committed");
+                }
+                continue;
+            }
+
+            if (failed < 0) {
+                if (pending.stream().anyMatch(index -> succeeded(results[index])))
+                    batchResultDto.setCommitted(true);
+                continue;
+            }
+
+            int failedIndex = pending.get(failed);
+            if (batchRequestDto.isAtomic()) {
+                for (int index = 0; index < results.length; index++) {
+                    if (index == failedIndex)
+                        continue;
+                    results[index] = new BatchOperationResultDto(HttpStatus.FAILED_DEPENDENCY.value(), null,
+                            results[index] == null
+                                    ? "Not run, operation " + failedIndex + " failed"
+                                    : "Rolled back, operation " + failedIndex + " failed");
+                }
+                break;
+            }
+
+            // The failure left the transaction unable to commit. The operations that succeeded before it are run
+            // again and committed on their own, and the batch continues after it in another transaction, so every
+            // operation runs at most twice.
+            transactions.addFirst(new ArrayList<>(pending.subList(failed + 1, pending.size())));
+            transactions.addFirst(pending.subList(0, failed).stream()
+                    .filter(index -> succeeded(results[index])).toList());
+        }
+
+        batchResultDto.setResults(Arrays.asList(results));
+        return batchResultDto;
+    }
+
+    /**
+     * Runs the pending operations in one transaction, each in a savepoint of its own and flushed right away, so that
+     * database errors are reported for the operation that caused them. In best-effort mode a failed operation is rolled
+     * back to its savepoint and the others continue, unless the failure left the whole transaction rollback-only:
+     * Hibernate does that after a database error, and Spring after an exception in a {@code @Transactional} method
+     * that joined the transaction. In atomic mode the first failure rolls back the transaction.
+     *
+     * @return the position in pending of the operation after which the transaction was rolled back, or -1 if it
+     * committed
+     */
+    private int runInTransaction(List<BatchOperationDto> operations, List<Integer> pending,
+                                 BatchOperationResultDto[] results, boolean atomic) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            // JpaTransactionManager has no savepoints with Hibernate, so they are set on the connection itself
+            Session session = entityManager.unwrap(Session.class);
+            boolean rolledBackToSavepoint = false;
+            for (int position = 0; position < pending.size(); position++) {
+                int index = pending.get(position);
+                Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+                try {
+                    Object body = TransactionCallbacks.discardOnFailure(() -> {
+                        Object result = dispatch(operations.get(index));
+                        entityManager.flush();
+                        return result;
+                    });
+                    session.doWork(connection -> connection.releaseSavepoint(savepoint));
+                    results[index] = new BatchOperationResultDto(HttpStatus.OK.value(), body, null);
+                } catch (RuntimeException e) {
+                    results[index] = failure(translate(e));
+                    if (atomic || status.isRollbackOnly()) {
+                        status.setRollbackOnly();
+                        return position;
+                    }
+                    entityManager.clear();
+                    session.doWork(connection -> connection.rollback(savepoint));
+                    rolledBackToSavepoint = true;
+                }
+            }
+
+            // Hibernate still puts the entities that were written before a savepoint was rolled back in the
+            // second-level cache when the transaction commits
+            if (rolledBackToSavepoint)
+                TransactionCallbacks.afterCompletion(() -> entityManagerFactory.getCache().evictAll());
+            return -1;
+        });
+    }
+
+    private Object dispatch(BatchOperationDto operation) {
+        String method = operation.getMethod() == null ? "" : operation.getMethod().toUpperCase(Locale.ROOT);
+        String path = operation.getPath() == null ? "" : operation.getPath().replaceFirst("^/+", "");
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        for (Route route : routes) {
+            if (!route.method.equals(method))
+                continue;
+            PathPattern.PathMatchInfo match = route.pattern.matchAndExtract(pathContainer);
+            if (match != null)
+                return route.operation.run(match.getUriVariables(), operation.getBody());
+        }
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown operation " + method + " " + path);
+    }
+
+    /**
+     * Translates the exceptions of the entity manager itself, like those of a flush, to the {@link DataAccessException}s
+     * the repositories throw.
+     */
+    private static RuntimeException translate(RuntimeException e) {
+        if (!(e instanceof PersistenceException))
+            return e;
+        DataAccessException translated = JPA_DIALECT.translateExceptionIfPossible(e);
+        return translated != null ? translated : e;
+    }
+
+    private static boolean succeeded(BatchOperationResultDto result) {
+        return result != null && result.getStatus() == HttpStatus.OK.value();
+    }
+
+    private static BatchOperationResultDto failure(RuntimeException e) {
+        if (e instanceof ResponseStatusException responseStatusException)
+            return new BatchOperationResultDto(responseStatusException.getStatusCode().value(), null,
+                    responseStatusException.getReason());
+        if (e instanceof NoSuchElementException || e instanceof EmptyResultDataAccessException)
+            return new BatchOperationResultDto(HttpStatus.NOT_FOUND.value(), null, "Not found");
+        if (e instanceof IllegalArgumentException)
+            return new BatchOperationResultDto(HttpStatus.BAD_REQUEST.value(), null, e.getMessage());
+        if (e instanceof DataIntegrityViolationException)
+            return new BatchOperationResultDto(HttpStatus.CONFLICT.value(), null, "Conflicts with existing data");
+
+        log.warn("Batch operation failed", e);
+        return new BatchOperationResultDto(HttpStatus.INTERNAL_SERVER_ERROR.value(), null, "Internal error");
+    }
+
+    private void route(String method, String pattern, Operation operation) {
+        routes.add(new Route(method, PathPatternParser.defaultInstance.parse(pattern), operation));
+    }
+
+    private <T> T body(JsonNode body, Class<T> type) {
+        if (body == null)
+            throw new IllegalArgumentException("Missing body");
+        return objectMapper.convertValue(body, type);
+    }
+
+    private static long id(Map<String, String> variables, String name) {
+        return Long.parseLong(variables.get(name));
+    }
+
+    private interface Operation {
+
+        /**
+         * @return the response body of the operation, or null for endpoints without one
+         */
+        Object run(Map<String, String> variables, JsonNode body);
+    }
+
+    private static final class Route {
+
+        private final String method;
+
+        private final PathPattern pattern;
+
+        private final Operation operation;
+
+        private Route(String method, PathPattern pattern, Operation operation) {
+            this.method = method;
+            this.pattern = pattern;
+            this.operation = operation;
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package wt.bookstore.backend.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import wt.bookstore.backend.config.CatalogReads;
+import wt.bookstore.backend.config.CatalogVersions;
+import wt.bookstore.backend.config.TransactionCallbacks;
 import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Keyword;
 import wt.bookstore.backend.dto.BookDto;
 import wt.bookstore.backend.dto.ChangeBookDto;
+import wt.bookstore.backend.dto.MultiGetDto;
 import wt.bookstore.backend.dto.SaveBookDto;
 import wt.bookstore.backend.mapping.BookDtoMapper;
+import wt.bookstore.backend.mapping.MultiGetDtoMapper;
+import wt.bookstore.backend.recommendation.BookSimilarityIndex;
+import wt.bookstore.backend.recommendation.CoBorrowingIndex;
 import wt.bookstore.backend.repository.IBookRepository;
 import wt.bookstore.backend.repository.ICopyRepository;
 import wt.bookstore.backend.repository.IReservationRepository;
+import wt.bookstore.backend.repository.KeywordPopularity;
+import wt.bookstore.backend.repository.MultiGetRepository;
 
 
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The controller class that sets the API endpoints for the CRUD operations of the database that handles the books.
@@ -36,6 +51,27 @@ public class BookController {
     @Autowired
     private BookDtoMapper bookMapper;
 
+    @Autowired
+    private KeywordPopularity keywordPopularity;
+
+    @Autowired
+    private BookSimilarityIndex bookSimilarityIndex;
+
+    @Autowired
+    private CoBorrowingIndex coBorrowingIndex;
+
+    @Autowired
+    private CatalogReads catalogReads;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private MultiGetRepository multiGetRepository;
+
+    @Autowired
+    private MultiGetDtoMapper multiGetMapper;
+
 
     /*
      * GET endpoints from here
@@ -43,18 +79,24 @@ public class BookController {
 
 
     /**
-     * Returns a Stream of {@link wt.bookstore.backend.dto.BookDto} for a GET request to {database_location}/book.
-     * @return Stream of {@link wt.bookstore.backend.dto.BookDto}'s
+     * Returns a List of {@link wt.bookstore.backend.dto.BookDto} for a GET request to {database_location}/book.
+     * The catalog endpoints query the database on the catalog thread pool, see {@link CatalogReads}. They answer with
+     * 304 Not Modified, without querying the database, when the ETag of the client is still the current
+     * {@link CatalogVersions} version.
+     * @return List of {@link wt.bookstore.backend.dto.BookDto}'s
      */
     @GetMapping("book")
-    public Stream<BookDto> findAll() {
-        return bookRepository.findAll().stream().map(bookMapper::bookToDto);
+    public CompletableFuture<ResponseEntity<List<BookDto>>> findAll(HttpServletRequest request) {
+        return catalogReads.submit(request, catalogVersions.books(),
+                () -> bookRepository.findAll().stream().map(bookMapper::bookToDto).toList());
     }
 
     @RequestMapping(value = "bookPage/{pageNumber}/{numberPerPage}", method = RequestMethod.GET)
-    public Stream<BookDto> findAllByPage(@PathVariable int pageNumber, @PathVariable int numberPerPage) {
+    public CompletableFuture<ResponseEntity<List<BookDto>>> findAllByPage(@PathVariable int pageNumber, @PathVariable int numberPerPage,
+                                                                          HttpServletRequest request) {
         Pageable pageable = PageRequest.of(pageNumber, numberPerPage);
-        return bookRepository.findAll(pageable).stream().map(bookMapper::bookToDto);
+        return catalogReads.submit(request, catalogVersions.books(),
+                () -> bookRepository.findAll(pageable).stream().map(bookMapper::bookToDto).toList());
     }
 
     /**
@@ -63,8 +105,61 @@ public class BookController {
      * @return Single {@link wt.bookstore.backend.dto.BookDto}
      */
     @GetMapping("book/{id}")
-    public Optional<BookDto> find(@PathVariable long id) {
-        return Optional.of(bookMapper.bookToDto(bookRepository.findById(id).get()));
+    public CompletableFuture<ResponseEntity<Optional<BookDto>>> find(@PathVariable long id, HttpServletRequest request) {
+        return catalogReads.submit(request, catalogVersions.book(id),
+                () -> Optional.of(bookMapper.bookToDto(bookRepository.findById(id).get())));
+    }
+
+    /**
+     * Returns the books with the given ids for a GET request to {database_location}/book/multi?ids=1,2,3, in the order
+     * of the ids, with the ids of books that do not exist. Replaces a book/{id} request per id: the books are loaded
+     * with one query, or taken from the cache.
+     * @return {@link wt.bookstore.backend.dto.MultiGetDto} of {@link wt.bookstore.backend.dto.BookDto}'s
+     */
+    @GetMapping("book/multi")
+    public CompletableFuture<ResponseEntity<MultiGetDto<BookDto>>> findMultiple(@RequestParam List<Long> ids,
+                                                                                HttpServletRequest request) {
+        return catalogReads.submit(request, catalogVersions.books(),
+                () -> multiGetMapper.toDto(ids, multiGetRepository.findAllByIdInOrder(Book.class, ids),
+                        bookMapper::bookToDto));
+    }
+
+
+
+    /**
+     * Returns the books with keywords most similar to those of the book with a certain id, most similar first, for a
+     * GET request to {database_location}/book/{id}/similar. Similarity is estimated with the {@link BookSimilarityIndex}.
+     * @param id (long) of the book you want similar books for.
+     * @param limit (int) maximum number of books to return, 10 by default
+     * @return List of {@link wt.bookstore.backend.dto.BookDto}'s
+     */
+    @GetMapping("book/{id}/similar")
+    @Transactional(readOnly = true)
+    public List<BookDto> findSimilar(@PathVariable long id, @RequestParam(defaultValue = "10") int limit) {
+        List<Long> similarIds = bookSimilarityIndex.findSimilar(id, limit);
+        // Books deleted since the index was updated are null
+        return multiGetRepository.findAllByIdInOrder(Book.class, similarIds).stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookToDto)
+                .toList();
+    }
+
+    /**
+     * Returns the books that were borrowed most often by users who also borrowed the book with a certain id, for a GET
+     * request to {database_location}/book/{id}/coborrowed. Served from the {@link CoBorrowingIndex}.
+     * @param id (long) of the book you want recommendations for.
+     * @param limit (int) maximum number of books to return, 10 by default
+     * @return List of {@link wt.bookstore.backend.dto.BookDto}'s
+     */
+    @GetMapping("book/{id}/coborrowed")
+    @Transactional(readOnly = true)
+    public List<BookDto> findCoBorrowed(@PathVariable long id, @RequestParam(defaultValue = "10") int limit) {
+        List<Long> bookIds = coBorrowingIndex.recommendForBook(id, limit);
+        // Books deleted since the index was updated are null
+        return multiGetRepository.findAllByIdInOrder(Book.class, bookIds).stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookToDto)
+                .toList();
     }
 
 
@@ -80,6 +175,7 @@ public class BookController {
     public void create(@RequestBody SaveBookDto saveBookDto) {
         Book book = bookMapper.dtoToBook(saveBookDto);
         bookRepository.save(book);
+        catalogVersions.bookChanged(book.getId());
     }
 
     @PutMapping("book/{id}")
@@ -93,20 +189,36 @@ public class BookController {
         optionalBook.get().setAuthor(changeBookDto.getAuthor());
 
         bookRepository.save(optionalBook.get());
+        catalogVersions.bookChanged(id);
     }
 
     /*
      * DELETE endpoints from here
      */
     @DeleteMapping("book/{id}")
+    @Transactional
     public void delete(@PathVariable long id) {
-        bookRepository.deleteById(id);
+        Optional<Book> optionalBook = bookRepository.findById(id);
+        if (optionalBook.isEmpty())
+            return;
+
+        // The book_keywords rows of the book are deleted with it
+        List<Long> keywordIds = optionalBook.get().getKeywords().stream().map(Keyword::getId).toList();
+        bookRepository.delete(optionalBook.get());
+        TransactionCallbacks.afterCommit(() -> {
+            keywordIds.forEach(keywordPopularity::untagged);
+            bookSimilarityIndex.removeBook(id);
+        });
+        catalogVersions.bookChanged(id);
     }
 
     @RequestMapping(value = "booksearch/{query}/{pageNumber}/{numberPerPage}", method = RequestMethod.GET)
-    public Stream<BookDto> searchBooks(@PathVariable String query, @PathVariable int pageNumber, @PathVariable int numberPerPage) {
+    public CompletableFuture<ResponseEntity<List<BookDto>>> searchBooks(@PathVariable String query, @PathVariable int pageNumber, @PathVariable int numberPerPage,
+                                                                        HttpServletRequest request) {
         Pageable pageable = PageRequest.of(pageNumber, numberPerPage);
-        return bookRepository.findByTitleContainingOrAuthorContaining(query, query, pageable).stream().map(bookMapper::bookToDto);
+        return catalogReads.submit(request, catalogVersions.books(),
+                () -> bookRepository.findByTitleContainingOrAuthorContaining(query, query, pageable)
+                        .stream().map(bookMapper::bookToDto).toList());
     }
 
 
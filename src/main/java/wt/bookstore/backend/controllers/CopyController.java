@@ -1,18 +1,23 @@
 package wt.bookstore.backend.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import wt.bookstore.backend.domains.Copy;
 import wt.bookstore.backend.dto.ChangeCopyDto;
 import wt.bookstore.backend.dto.CopyDto;
+import wt.bookstore.backend.dto.MultiGetDto;
 import wt.bookstore.backend.dto.SaveCopyDto;
+import wt.bookstore.backend.events.AvailabilityEvents;
 import wt.bookstore.backend.mapping.CopyDtoMapper;
+import wt.bookstore.backend.mapping.MultiGetDtoMapper;
 import wt.bookstore.backend.repository.IBookRepository;
 import wt.bookstore.backend.repository.ICopyRepository;
+import wt.bookstore.backend.repository.MultiGetRepository;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 /**
  * The controller class that sets the API endpoints for the CRUD operations of the database that handles the copies.
@@ -30,18 +35,28 @@ public class CopyController {
     @Autowired
     private CopyDtoMapper copyMapper;
 
+    @Autowired
+    private MultiGetRepository multiGetRepository;
+
+    @Autowired
+    private MultiGetDtoMapper multiGetMapper;
+
+    @Autowired
+    private AvailabilityEvents availabilityEvents;
+
 
     /*
      * GET endpoints starting from here
      */
      
     /**
-     * Returns a Stream of {@link wt.bookstore.backend.dto.CopyDto} for a GET request to {database_location}/copy.
-     * @return Stream of {@link wt.bookstore.backend.dto.CopyDto}'s
+     * Returns a List of {@link wt.bookstore.backend.dto.CopyDto} for a GET request to {database_location}/copy.
+     * @return List of {@link wt.bookstore.backend.dto.CopyDto}'s
      */
     @GetMapping("copy")
-    public Stream<CopyDto> findAll() {
-        return copyRepository.findAll().stream().map(copyMapper::copyToDto);
+    @Transactional(readOnly = true)
+    public List<CopyDto> findAll() {
+        return copyRepository.findAll().stream().map(copyMapper::copyToDto).toList();
     }
 
     /**
@@ -50,10 +65,22 @@ public class CopyController {
      * @return Single {@link wt.bookstore.backend.dto.CopyDto}
      */
     @GetMapping("copy/{id}")
+    @Transactional(readOnly = true)
     public Optional<CopyDto> find(@PathVariable long id) {
         return Optional.of(copyMapper.copyToDto(copyRepository.findById(id).get()));
     }
 
+    /**
+     * Returns the copies with the given ids for a GET request to {database_location}/copy/multi?ids=1,2,3, in the
+     * order of the ids, with the ids of copies that do not exist.
+     * @return {@link wt.bookstore.backend.dto.MultiGetDto} of {@link wt.bookstore.backend.dto.CopyDto}'s
+     */
+    @GetMapping("copy/multi")
+    @Transactional(readOnly = true)
+    public MultiGetDto<CopyDto> findMultiple(@RequestParam List<Long> ids) {
+        return multiGetMapper.toDto(ids, multiGetRepository.findAllByIdInOrder(Copy.class, ids), copyMapper::copyToDto);
+    }
+
 
     /*
      * POST endpoints starting from here
@@ -68,6 +95,7 @@ public class CopyController {
         Copy copy = copyMapper.dtoToCopy(saveCopyDto);
         if (copy != null) {
             copyRepository.save(copy);
+            availabilityEvents.copyChanged("created", copy);
             return true;
         } else {
             return false;
@@ -86,12 +114,16 @@ public class CopyController {
         optionalCopy.get().setAvailable(changeCopyDto.isAvailable());
 
         copyRepository.save(optionalCopy.get());
+        availabilityEvents.copyChanged("updated", optionalCopy.get());
     }
 
 
     @DeleteMapping("copy/{id}")
+    @Transactional
     public void delete(@PathVariable long id) {
+        Optional<Copy> optionalCopy = copyRepository.findById(id);
         copyRepository.deleteById(id);
+        optionalCopy.ifPresent(copy -> availabilityEvents.copyChanged("deleted", copy));
     }
 
 
@@ -1,18 +1,32 @@
 package wt.bookstore.backend.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import wt.bookstore.backend.audit.AuditEntity;
+import wt.bookstore.backend.audit.AuditJournal;
+import wt.bookstore.backend.audit.AuditOperation;
+import wt.bookstore.backend.config.CatalogReads;
+import wt.bookstore.backend.config.CatalogVersions;
+import wt.bookstore.backend.config.TransactionCallbacks;
 import wt.bookstore.backend.domains.Keyword;
+import wt.bookstore.backend.dto.BulkKeywordResultDto;
+import wt.bookstore.backend.dto.KeywordCountDto;
 import wt.bookstore.backend.dto.KeywordDto;
 import wt.bookstore.backend.dto.SaveKeywordDto;
 import wt.bookstore.backend.mapping.KeywordDtoMapper;
+import wt.bookstore.backend.recommendation.BookSimilarityIndex;
+import wt.bookstore.backend.repository.BookKeywordJdbcRepository;
 import wt.bookstore.backend.repository.IBookRepository;
 import wt.bookstore.backend.repository.IKeywordRepository;
+import wt.bookstore.backend.repository.KeywordPopularity;
 import wt.bookstore.backend.domains.Book;
 
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @CrossOrigin(maxAge = 3600)
@@ -27,14 +41,48 @@ public class KeywordController {
     @Autowired
     private KeywordDtoMapper keywordMapper;
 
+    @Autowired
+    private BookKeywordJdbcRepository bookKeywordJdbcRepository;
+
+    @Autowired
+    private KeywordPopularity keywordPopularity;
+
+    @Autowired
+    private BookSimilarityIndex bookSimilarityIndex;
+
+    @Autowired
+    private CatalogReads catalogReads;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private AuditJournal auditJournal;
+
+    /**
+     * Returns all keywords. Like the book endpoints, this queries the database on the catalog thread pool, and
+     * answers with 304 Not Modified if the client already has the current version.
+     */
     @GetMapping("keyword")
-    public Stream<KeywordDto> findAll() {
-        return keywordRepository.findAll().stream().map(keywordMapper::keywordToDto);
+    public CompletableFuture<ResponseEntity<List<KeywordDto>>> findAll(HttpServletRequest request) {
+        return catalogReads.submit(request, catalogVersions.keywords(),
+                () -> keywordRepository.findAll().stream().map(keywordMapper::keywordToDto).toList());
+    }
+
+    /**
+     * Returns the most used keywords with the number of books tagged with them, most used first, for a GET request to
+     * {database_location}/keyword/cloud. The counts are served from memory.
+     * @param limit (int) maximum number of keywords to return, 50 by default
+     */
+    @GetMapping("keyword/cloud")
+    public List<KeywordCountDto> findCloud(@RequestParam(defaultValue = "50") int limit) {
+        return keywordPopularity.top(limit).stream().map(keywordMapper::keywordCountToDto).toList();
     }
 
     @GetMapping("keyword/{id}")
-    public Optional<KeywordDto> find(@PathVariable long id) {
-        return Optional.of(keywordMapper.keywordToDto(keywordRepository.findById(id).get()));
+    public CompletableFuture<ResponseEntity<Optional<KeywordDto>>> find(@PathVariable long id, HttpServletRequest request) {
+        return catalogReads.submit(request, catalogVersions.keyword(id),
+                () -> Optional.of(keywordMapper.keywordToDto(keywordRepository.findById(id).get())));
     }
 
     /**
@@ -45,11 +93,12 @@ public class KeywordController {
      * If not, it will create a new Keyword object.
      */
     @PostMapping("keyword/create")
+    @Transactional
     public boolean create(@RequestBody SaveKeywordDto saveKeywordDto) {
 
     	long bookId = saveKeywordDto.getBookId();
         Optional<Book> optionalBook = bookRepository.findById(bookId);
-        Optional<Keyword> keywordInTable = keywordRepository.findByName(saveKeywordDto.getName());
+        Optional<Keyword> keywordInTable = keywordRepository.findByName(Keyword.normalizeName(saveKeywordDto.getName()));
 
 
         if (keywordInTable.isPresent()) {
@@ -58,12 +107,24 @@ public class KeywordController {
 
             bookRepository.save(optionalBook.get()); // Misschien is één van de twee overbodig,
             keywordRepository.save(keywordInTable.get()); // maar het veroorzaakt geen problemen
+            Keyword keyword = keywordInTable.get();
+            TransactionCallbacks.afterCommit(() -> {
+                keywordPopularity.tagged(keyword.getId(), keyword.getName());
+                bookSimilarityIndex.addKeyword(bookId, keyword.getId());
+                auditJournal.record(AuditEntity.BOOK, AuditOperation.UPDATE, bookId);
+            });
             return true;
         } else {
             //}
             Keyword keyword = keywordMapper.dtoToKeyword(saveKeywordDto);
             if (keyword != null) {
                 keywordRepository.save(keyword);
+                catalogVersions.keywordChanged(keyword.getId());
+                TransactionCallbacks.afterCommit(() -> {
+                    keywordPopularity.tagged(keyword.getId(), keyword.getName());
+                    bookSimilarityIndex.addKeyword(bookId, keyword.getId());
+                    auditJournal.record(AuditEntity.BOOK, AuditOperation.UPDATE, bookId);
+                });
                 return true;
             } else {
                 return false;
@@ -72,6 +133,77 @@ public class KeywordController {
     }
 
 
+    /**
+     * Tags many books with keywords at once, for a POST request to {database_location}/keyword/create/bulk with a list
+     * of (bookId, name) pairs. Names are normalized, keywords that do not exist yet are created and pairs that are
+     * already tagged are skipped. Pairs with an unknown book id are ignored and reported in the result.
+     *
+     * Unlike {@link #create(SaveKeywordDto)} this takes a fixed number of statements, regardless of the number of pairs.
+     */
+    @PostMapping("keyword/create/bulk")
+    @Transactional
+    public BulkKeywordResultDto createBulk(@RequestBody List<SaveKeywordDto> saveKeywordDtos) {
+        BulkKeywordResultDto result = new BulkKeywordResultDto();
+
+        Map<Long, Set<String>> namesByBook = new LinkedHashMap<>();
+        for (SaveKeywordDto saveKeywordDto : saveKeywordDtos) {
+            String name = Keyword.normalizeName(saveKeywordDto.getName());
+            if (name != null && !name.isEmpty())
+                namesByBook.computeIfAbsent(saveKeywordDto.getBookId(), id -> new LinkedHashSet<>()).add(name);
+        }
+
+        Set<Long> existingBookIds = bookKeywordJdbcRepository.findExistingBookIds(namesByBook.keySet());
+        namesByBook.keySet().removeIf(bookId -> {
+            if (existingBookIds.contains(bookId))
+                return false;
+            result.getUnknownBookIds().add(bookId);
+            return true;
+        });
+
+        // Resolve all keywords in one query and create the missing ones in one statement
+        Set<String> names = new HashSet<>();
+        namesByBook.values().forEach(names::addAll);
+        Map<String, Long> keywordIds = bookKeywordJdbcRepository.findKeywordIds(names);
+        Set<String> missingNames = new HashSet<>(names);
+        missingNames.removeAll(keywordIds.keySet());
+        // Another request can create some of the same keywords at the same time, those are found by the second query
+        int createdKeywords = bookKeywordJdbcRepository.insertMissingKeywords(missingNames);
+        keywordIds.putAll(bookKeywordJdbcRepository.findKeywordIdsForUpdate(missingNames));
+        result.setCreatedKeywords(createdKeywords);
+        if (createdKeywords > 0)
+            catalogVersions.keywordsChanged();
+
+        // Link the books and keywords that are not linked yet in one batch
+        Map<Long, Set<Long>> existingKeywordIds = bookKeywordJdbcRepository.findKeywordIdsByBook(namesByBook.keySet());
+        List<long[]> newPairs = new ArrayList<>();
+        for (Map.Entry<Long, Set<String>> entry : namesByBook.entrySet()) {
+            Set<Long> linked = existingKeywordIds.getOrDefault(entry.getKey(), Set.of());
+            for (String name : entry.getValue()) {
+                long keywordId = keywordIds.get(name);
+                if (!linked.contains(keywordId))
+                    newPairs.add(new long[]{entry.getKey(), keywordId});
+            }
+        }
+        bookKeywordJdbcRepository.insertBookKeywords(newPairs);
+        result.setTagged(newPairs.size());
+
+        Map<Long, String> namesById = new HashMap<>();
+        keywordIds.forEach((name, id) -> namesById.put(id, name));
+        TransactionCallbacks.afterCommit(() -> {
+            for (long[] pair : newPairs) {
+                keywordPopularity.tagged(pair[1], namesById.get(pair[1]));
+                bookSimilarityIndex.addKeyword(pair[0], pair[1]);
+            }
+            // Written with JDBC, so not recorded by the Hibernate listeners
+            for (String name : missingNames)
+                auditJournal.record(AuditEntity.KEYWORD, AuditOperation.CREATE, keywordIds.get(name));
+            newPairs.stream().map(pair -> pair[0]).distinct()
+                    .forEach(bookId -> auditJournal.record(AuditEntity.BOOK, AuditOperation.UPDATE, bookId));
+        });
+
+        return result;
+    }
+
 //    @RequestMapping(value = "keyword/{id}", method = RequestMethod.PUT)
 //    public void update(@PathVariable long id, @RequestBody Keyword keyword) {
 //        Optional<Keyword> optional = keywordRepository.findById(id);
@@ -80,9 +212,41 @@ public class KeywordController {
 //        keywordRepository.save(optional.get());
 //    }
 
+    /**
+     * Removes a keyword from a book, for a DELETE request to {database_location}/keyword/{id}/book/{bookId}.
+     * @return true if the book was tagged with the keyword
+     */
+    @DeleteMapping("keyword/{id}/book/{bookId}")
+    @Transactional
+    public boolean untag(@PathVariable long id, @PathVariable long bookId) {
+        Optional<Book> optionalBook = bookRepository.findById(bookId);
+        if (optionalBook.isEmpty())
+            return false;
+
+        int before = optionalBook.get().getKeywords().size();
+        optionalBook.get().getKeywords().removeIf(keyword -> keyword.getId() == id);
+        int removed = before - optionalBook.get().getKeywords().size();
+        if (removed == 0)
+            return false;
+
+        bookRepository.save(optionalBook.get());
+        TransactionCallbacks.afterCommit(() -> {
+            for (int i = 0; i < removed; i++)
+                keywordPopularity.untagged(id);
+            bookSimilarityIndex.removeKeyword(bookId, id);
+            auditJournal.record(AuditEntity.BOOK, AuditOperation.UPDATE, bookId);
+        });
+        return true;
+    }
+
     @DeleteMapping("keyword/{id}")
     public void delete(@PathVariable long id) {
     	keywordRepository.deleteById(id);
+    	TransactionCallbacks.afterCommit(() -> {
+    		keywordPopularity.removed(id);
+    		bookSimilarityIndex.removeKeyword(id);
+    	});
+    	catalogVersions.keywordChanged(id);
     }
 
 
@@ -1,10 +1,11 @@
 package wt.bookstore.backend.controllers;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import wt.bookstore.backend.domains.Book;
@@ -12,10 +13,14 @@ import wt.bookstore.backend.domains.Copy;
 import wt.bookstore.backend.domains.Loan;
 import wt.bookstore.backend.domains.User;
 import wt.bookstore.backend.dto.ChangeLoanDto;
+import wt.bookstore.backend.dto.CompactListDto;
+import wt.bookstore.backend.dto.CompactLoanDto;
 import wt.bookstore.backend.dto.LoanDto;
 import wt.bookstore.backend.dto.SaveLoanDto;
 import wt.bookstore.backend.dto.SaveReservationDto;
+import wt.bookstore.backend.events.AvailabilityEvents;
 import wt.bookstore.backend.mapping.LoanDtoMapper;
+import wt.bookstore.backend.mapping.StringDictionary;
 import wt.bookstore.backend.repository.IBookRepository;
 import wt.bookstore.backend.repository.ILoanRepository;
 import wt.bookstore.backend.repository.IUserRepository;
@@ -39,19 +44,37 @@ public class LoanController {
 	@Autowired
 	private LoanDtoMapper loanMapper;
 
+	@Autowired
+	private AvailabilityEvents availabilityEvents;
+
 	/*
 	 * GET endpoints from here
    */
    
 	/**
-	 * Returns a Stream of {@link wt.bookstore.backend.dto.LoanDto} for a GET request to {database_location}/loan.
-	 * @return Stream of {@link wt.bookstore.backend.dto.LoanDto}'s
+	 * Returns a List of {@link wt.bookstore.backend.dto.LoanDto} for a GET request to {database_location}/loan.
+	 * @return List of {@link wt.bookstore.backend.dto.LoanDto}'s
 	 */
    
 	@GetMapping("loan")
-	public Stream<LoanDto> findAll() {
+	@Transactional(readOnly = true)
+	public List<LoanDto> findAll() {
 		// Loan omzetten naar LoanDto
-		return loanRepository.findAll().stream().map(loanMapper::loanToDto);
+		return loanRepository.findAll().stream().map(loanMapper::loanToDto).toList();
+	}
+
+	/**
+	 * Returns all loans like {@link #findAll()}, but dictionary-encoded, for a GET request to
+	 * {database_location}/loan/compact. User names and book titles are sent once instead of on every loan.
+	 * @return {@link wt.bookstore.backend.dto.CompactListDto} of {@link wt.bookstore.backend.dto.CompactLoanDto}'s
+	 */
+	@GetMapping("loan/compact")
+	@Transactional(readOnly = true)
+	public CompactListDto<CompactLoanDto> findAllCompact() {
+		StringDictionary strings = new StringDictionary();
+		List<CompactLoanDto> loans = loanRepository.findAll().stream()
+				.map(loan -> loanMapper.loanToCompactDto(loan, strings)).toList();
+		return new CompactListDto<>(strings.getStrings(), loans);
 	}
 
 	/**
@@ -60,6 +83,7 @@ public class LoanController {
 	 * @return Single {@link wt.bookstore.backend.dto.LoanDto}
 	 */
 	@GetMapping("loan/{id}")
+	@Transactional(readOnly = true)
 	public Optional<LoanDto> find(@PathVariable long id) {
 		return Optional.of(loanMapper.loanToDto(loanRepository.findById(id).get()));
 	}
@@ -78,6 +102,7 @@ public class LoanController {
 		Loan loan = loanMapper.dtoToLoan(saveLoanDto);
 		if (loan != null) {
 			loanRepository.save(loan);
+			availabilityEvents.loanChanged("created", loan);
 			return true;
 		}
 		return false;
@@ -85,6 +110,7 @@ public class LoanController {
 
 
 	@PostMapping("loan/create/fromreservation")
+	@Transactional
 	public void createFromReservation(@RequestBody SaveReservationDto saveReservationDto){
 		Loan loan = new Loan();
 
@@ -98,6 +124,7 @@ public class LoanController {
 		loan.setUser(user.get());
 
 		loanRepository.save(loan);
+		availabilityEvents.loanChanged("created", loan);
 	}
 
 
@@ -120,6 +147,7 @@ public class LoanController {
 		}
 
 		loanRepository.save(optionalLoan.get());
+		availabilityEvents.loanChanged("updated", optionalLoan.get());
 	}
 
 
@@ -127,8 +155,11 @@ public class LoanController {
 	 * DELETE endpoints from here
 	 */
 	@DeleteMapping("loan/{id}")
+	@Transactional
 	public void delete(@PathVariable long id) {
+		Optional<Loan> optionalLoan = loanRepository.findById(id);
 		loanRepository.deleteById(id);
+		optionalLoan.ifPresent(loan -> availabilityEvents.loanChanged("deleted", loan));
 	}
 
 
@@ -1,20 +1,25 @@
 package wt.bookstore.backend.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import wt.bookstore.backend.domains.*;
 import wt.bookstore.backend.dto.ChangeReservationDto;
+import wt.bookstore.backend.dto.CompactListDto;
+import wt.bookstore.backend.dto.CompactReservationDto;
 import wt.bookstore.backend.dto.ReservationDto;
 import wt.bookstore.backend.dto.SaveReservationDto;
+import wt.bookstore.backend.events.AvailabilityEvents;
 import wt.bookstore.backend.mapping.ReservationDtoMapper;
+import wt.bookstore.backend.mapping.StringDictionary;
 import wt.bookstore.backend.repository.IBookRepository;
 import wt.bookstore.backend.repository.ILoanRepository;
 import wt.bookstore.backend.repository.IReservationRepository;
 import wt.bookstore.backend.repository.IUserRepository;
 
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 
 /**
@@ -39,18 +44,36 @@ public class ReservationController {
     @Autowired
     private ReservationDtoMapper reservationMapper;
 
+    @Autowired
+    private AvailabilityEvents availabilityEvents;
+
 
     /*
      * GET endpoints from here
      */
      
     /**
-     * Returns a Stream of {@link wt.bookstore.backend.dto.ReservationDto} for a GET request to {database_location}/reservation.
-     * @return Stream of {@link wt.bookstore.backend.dto.ReservationDto}'s
+     * Returns a List of {@link wt.bookstore.backend.dto.ReservationDto} for a GET request to {database_location}/reservation.
+     * @return List of {@link wt.bookstore.backend.dto.ReservationDto}'s
      */
     @GetMapping("reservation")
-    public Stream<ReservationDto> findAll() {
-        return reservationRepository.findAll().stream().map(reservationMapper::reservationToDto);
+    @Transactional(readOnly = true)
+    public List<ReservationDto> findAll() {
+        return reservationRepository.findAll().stream().map(reservationMapper::reservationToDto).toList();
+    }
+
+    /**
+     * Returns all reservations like {@link #findAll()}, but dictionary-encoded, for a GET request to
+     * {database_location}/reservation/compact.
+     * @return {@link wt.bookstore.backend.dto.CompactListDto} of {@link wt.bookstore.backend.dto.CompactReservationDto}'s
+     */
+    @GetMapping("reservation/compact")
+    @Transactional(readOnly = true)
+    public CompactListDto<CompactReservationDto> findAllCompact() {
+        StringDictionary strings = new StringDictionary();
+        List<CompactReservationDto> reservations = reservationRepository.findAll().stream()
+                .map(reservation -> reservationMapper.reservationToCompactDto(reservation, strings)).toList();
+        return new CompactListDto<>(strings.getStrings(), reservations);
     }
 
     /**
@@ -59,6 +82,7 @@ public class ReservationController {
      * @return Single {@link wt.bookstore.backend.dto.ReservationDto}
      */
     @GetMapping("reservation/{id}")
+    @Transactional(readOnly = true)
     public Optional<ReservationDto> find(@PathVariable long id) {
         Optional<Reservation> optionalReservation = reservationRepository.findById(id);
         return Optional.of(reservationMapper.reservationToDto(optionalReservation.get()));
@@ -78,6 +102,7 @@ public class ReservationController {
         Reservation reservation = reservationMapper.dtoToReservation(saveReservationDto);
         if (reservation != null) {
             reservationRepository.save(reservation);
+            availabilityEvents.reservationChanged("created", reservation);
             return true;
         }
         return false;
@@ -94,6 +119,7 @@ public class ReservationController {
         optionalReservation.get().setDate(changeReservationDto.getDate());
 
         reservationRepository.save(optionalReservation.get());
+        availabilityEvents.reservationChanged("updated", optionalReservation.get());
     }
 
 
@@ -127,12 +153,16 @@ public class ReservationController {
         }
 
         reservationRepository.save(reservation);
+        availabilityEvents.reservationChanged("updated", reservation);
         return true;
     }
 
     @RequestMapping(value = "reservation/{id}", method = RequestMethod.DELETE)
+    @Transactional
     public boolean delete(@PathVariable long id) {
+        Optional<Reservation> optionalReservation = reservationRepository.findById(id);
         reservationRepository.deleteById(id);
+        optionalReservation.ifPresent(reservation -> availabilityEvents.reservationChanged("deleted", reservation));
         return true;
     }
 
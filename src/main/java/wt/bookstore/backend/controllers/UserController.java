@@ -1,21 +1,42 @@
 package wt.bookstore.backend.controllers;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
-import wt.bookstore.backend.domains.Loan;
-import wt.bookstore.backend.domains.Reservation;
+import wt.bookstore.backend.config.TransactionCallbacks;
+import wt.bookstore.backend.domains.Book;
 import wt.bookstore.backend.domains.User;
 import wt.bookstore.backend.dto.*;
+import wt.bookstore.backend.mapping.BookDtoMapper;
+import wt.bookstore.backend.mapping.LoanDtoMapper;
+import wt.bookstore.backend.mapping.MultiGetDtoMapper;
+import wt.bookstore.backend.mapping.ReservationDtoMapper;
 import wt.bookstore.backend.mapping.UserDtoMapper;
+import wt.bookstore.backend.recommendation.CoBorrowingIndex;
 import wt.bookstore.backend.repository.ILoanRepository;
 import wt.bookstore.backend.repository.IReservationRepository;
 import wt.bookstore.backend.repository.IUserRepository;
+import wt.bookstore.backend.repository.MultiGetRepository;
+import wt.bookstore.backend.repository.UserEmailIndex;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+import wt.bookstore.backend.security.LoginRateLimiter;
+import wt.bookstore.backend.security.PasswordHasher;
+import wt.bookstore.backend.security.SessionStore;
+import wt.bookstore.backend.security.TokenGenerator;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Random;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
 
 
 /**
@@ -37,18 +58,59 @@ public class UserController {
     @Autowired
     private UserDtoMapper userMapper;
 
+    @Autowired
+    private BookDtoMapper bookMapper;
+
+    @Autowired
+    private LoanDtoMapper loanMapper;
+
+    @Autowired
+    private ReservationDtoMapper reservationMapper;
+
+    @Autowired
+    private CoBorrowingIndex coBorrowingIndex;
+
+    @Autowired
+    private UserEmailIndex userEmailIndex;
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private TokenGenerator tokenGenerator;
+
+    @Autowired
+    @Qualifier("loginExecutor")
+    private ThreadPoolTaskExecutor loginExecutor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MultiGetRepository multiGetRepository;
+
+    @Autowired
+    private MultiGetDtoMapper multiGetMapper;
+
 
     /*
      * GET endpoints from here
      */
      
     /**
-     * Returns a Stream of {@link wt.bookstore.backend.dto.UserDto} for a GET request to {database_location}/user.
-     * @return Stream of {@link wt.bookstore.backend.dto.UserDto}'s
+     * Returns a List of {@link wt.bookstore.backend.dto.UserDto} for a GET request to {database_location}/user.
+     * @return List of {@link wt.bookstore.backend.dto.UserDto}'s
      */
     @GetMapping("user")
-    public Stream<UserDto> findAll() {
-        return userRepository.findAll().stream().map(userMapper::userToDto);
+    @Transactional(readOnly = true)
+    public List<UserDto> findAll() {
+        return userRepository.findAll().stream().map(userMapper::userToDto).toList();
     }
 
     /**
@@ -57,10 +119,22 @@ public class UserController {
      * @return Single {@link wt.bookstore.backend.dto.UserDto}
      */
     @GetMapping("user/{id}")
+    @Transactional(readOnly = true)
     public Optional<UserDto> find(@PathVariable long id) {
         return Optional.of(userMapper.userToDto(userRepository.findById(id).get()));
     }
 
+    /**
+     * Returns the users with the given ids for a GET request to {database_location}/user/multi?ids=1,2,3, in the order
+     * of the ids, with the ids of users that do not exist.
+     * @return {@link wt.bookstore.backend.dto.MultiGetDto} of {@link wt.bookstore.backend.dto.UserDto}'s
+     */
+    @GetMapping("user/multi")
+    @Transactional(readOnly = true)
+    public MultiGetDto<UserDto> findMultiple(@RequestParam List<Long> ids) {
+        return multiGetMapper.toDto(ids, multiGetRepository.findAllByIdInOrder(User.class, ids), userMapper::userToDto);
+    }
+
 
     /*
      * POST endpoints from here
@@ -69,11 +143,21 @@ public class UserController {
     /**
      * Creates a {@link wt.bookstore.backend.domains.User} object from a {@link wt.bookstore.backend.dto.SaveUserDto} and saves it to the database for a POST request to {database_location}/user/create. The id is autogenerated.
      * @param saveUserDto ({@link wt.bookstore.backend.dto.SaveUserDto}) is generated from the json body in the POST request and contains the information needed to create a {@link wt.bookstore.backend.domains.User} object.
+     * Responds with 409 if the email address is already registered.
      */
     @PostMapping("user/create")
     public void create(@RequestBody SaveUserDto saveUserDto) {
+        if (userEmailIndex.isRegistered(saveUserDto.getEmailAddress()))
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email address is already registered");
+
         User user = userMapper.dtoToUser(saveUserDto);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Registered at the same time by another request, the unique index on the email address caught it
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email address is already registered");
+        }
+        TransactionCallbacks.afterCommit(() -> userEmailIndex.put(user.getEmailAddress(), user.getId()));
     }
 
     /*
@@ -84,18 +168,30 @@ public class UserController {
         Optional<User> optionalUser = userRepository.findById(id);
         String newFirstName = changeUserDto.getFirstName();
         String newLastName = changeUserDto.getLastName();
-        String newEmailAddress = changeUserDto.getEmailAddress();
+        String newEmailAddress = UserEmailIndex.normalize(changeUserDto.getEmailAddress());
         String newPassword = changeUserDto.getPassword();
         boolean newAdmin = changeUserDto.isAdmin();
 
+        Optional<User> emailOwner = userEmailIndex.findUser(newEmailAddress);
+        if (emailOwner.isPresent() && emailOwner.get().getId() != id)
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Email address is already registered");
+
         // TODO
         optionalUser.get().setFirstName(newFirstName);
         optionalUser.get().setLastName(newLastName);
         optionalUser.get().setEmailAddress(newEmailAddress);
-        optionalUser.get().setPassword(newPassword);
+        if (newPassword != null)
+            optionalUser.get().setPassword(passwordHasher.hash(newPassword));
         optionalUser.get().setAdmin(newAdmin);
 
         userRepository.save(optionalUser.get());
+        String token = optionalUser.get().getToken();
+        TransactionCallbacks.afterCommit(() -> {
+            userEmailIndex.put(newEmailAddress, id);
+            // The next request restores the session from the database, with the new admin flag
+            if (token != null)
+                sessionStore.remove(token);
+        });
     }
     
     /*
@@ -112,56 +208,137 @@ public class UserController {
 
     @DeleteMapping("user/{id}")
     public void delete(@PathVariable long id) {
-        userRepository.deleteById(id);
+        Optional<User> optionalUser = userRepository.findById(id);
+        if (optionalUser.isEmpty())
+            return;
+
+        String token = optionalUser.get().getToken();
+        userRepository.delete(optionalUser.get());
+        TransactionCallbacks.afterCommit(() -> {
+            userEmailIndex.remove(id);
+            if (token != null)
+                sessionStore.remove(token);
+        });
     }
 
+    /**
+     * Returns the loans of the user with a certain id for a GET request to {database_location}/user/{id}/loans.
+     * @return List of {@link wt.bookstore.backend.dto.LoanDto}'s
+     */
     @GetMapping("user/{id}/loans")
-    public List<Loan> findLoans(@PathVariable long id){
-    	/**
-    	 * Used to find all loans of a user
-    	 */
-    	return loanRepository.findByUserId(id);
+    @Transactional(readOnly = true)
+    public List<LoanDto> findLoans(@PathVariable long id){
+    	return loanRepository.findByUserId(id).stream().map(loanMapper::loanToDto).toList();
     }
 
+    /**
+     * Returns the reservations of the user with a certain id for a GET request to
+     * {database_location}/user/{id}/reservations.
+     * @return List of {@link wt.bookstore.backend.dto.ReservationDto}'s
+     */
     @GetMapping("user/{id}/reservations")
-    public List<Reservation> findReservations(@PathVariable long id){
-    	/**
-    	 * Used to find all reservations of a user
-    	 */
-    	return reservationRepository.findByUserId(id);
+    @Transactional(readOnly = true)
+    public List<ReservationDto> findReservations(@PathVariable long id){
+    	return reservationRepository.findByUserId(id).stream().map(reservationMapper::reservationToDto).toList();
     }
 
-    @PostMapping("api/user/login")
-    public LoginResponseDto Login(@RequestBody LoginRequestDto loginRequestDto){
-        Optional<User> userOptional = userRepository.findByEmailAddressAndPassword(
-                loginRequestDto.getUsername(), loginRequestDto.getPassword()
-        );
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            String token = generateRandomString(60);
+    /**
+     * Returns books the user with a certain id has not borrowed yet, based on what was borrowed by users who borrowed
+     * the same books, for a GET request to {database_location}/user/{id}/recommendations.
+     * @param id (long) of the user you want recommendations for.
+     * @param limit (int) maximum number of books to return, 10 by default
+     * @return List of {@link wt.bookstore.backend.dto.BookDto}'s
+     */
+    @GetMapping("user/{id}/recommendations")
+    @Transactional(readOnly = true)
+    public List<BookDto> findRecommendations(@PathVariable long id, @RequestParam(defaultValue = "10") int limit) {
+        List<Long> bookIds = coBorrowingIndex.recommendForUser(id, limit);
+        // Books deleted since the index was updated are null
+        return multiGetRepository.findAllByIdInOrder(Book.class, bookIds).stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookToDto)
+                .toList();
+    }
 
-            // Save token to user
-            user.setToken(token);
-            userRepository.save(user);
+    /**
+     * Logs a user in and returns a new session token. The user is looked up through the email index, after which the password
+     * is verified on the password hash thread pool, so the request thread is released while the hash is computed. The
+     * new token is stored on the login thread pool, so the hash pool only computes hashes.
+     * Attempts over the rate limit are rejected with 429 before the database is queried.
+     */
+    @PostMapping("api/user/login")
+    public CompletableFuture<LoginResponseDto> Login(@RequestBody LoginRequestDto loginRequestDto,
+                                                     HttpServletRequest request){
+        if (!loginRateLimiter.tryAcquire(loginRequestDto.getUsername(), request.getRemoteAddr()))
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
 
-            return new LoginResponseDto(token, user.isAdmin());
+        String password = loginRequestDto.getPassword();
+        Optional<User> userOptional = userEmailIndex.findUser(loginRequestDto.getUsername());
+        if (userOptional.isEmpty()) {
+            // As slow as a wrong password, so the response time does not tell which email addresses are registered
+            return passwordHasher.verifyUnknownUser(password).thenApply(matches -> null);
         }
 
-        return null;
+        long userId = userOptional.get().getId();
+        String storedPassword = userOptional.get().getPassword();
+        return passwordHasher.verify(password, storedPassword)
+                .thenApplyAsync(matches -> matches ? startSession(userId, storedPassword, password) : null,
+                        loginExecutor);
     }
 
-    public String generateRandomString(int targetStringLength) {
+    /**
+     * Stores a new token for a user whose password was just verified. Only the token (and an outdated password hash) is
+     * changed on the user as it is now, so changes made while the password was verified are kept.
+     * @return the login response, or null if the user was deleted or got another password in the meantime
+     */
+    private LoginResponseDto startSession(long userId, String verifiedPassword, String rawPassword) {
+        String token = generateRandomString(60);
+        // Plaintext passwords and hashes with an outdated cost are replaced on a successful login
+        String rehashedPassword = passwordHasher.needsRehash(verifiedPassword)
+                ? passwordHasher.hash(rawPassword) : null;
 
-        int leftLimit = 48; // letter 'a'
-        int rightLimit = 122; // letter 'z'
-        Random random = new Random();
-        String generatedString = random.ints(leftLimit, rightLimit + 1)
-                .filter(i -> (i <= 57 || i >= 65) && (i <= 90 || i >= 97))
-                .limit(targetStringLength)
-                .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append)
-                .toString();
+        User user = new TransactionTemplate(transactionManager).execute(status -> {
+            Optional<User> optionalUser = userRepository.findById(userId);
+            if (optionalUser.isEmpty() || !optionalUser.get().getPassword().equals(verifiedPassword))
+                return null;
 
-        return generatedString;
+            // The previous token of this user is no longer valid
+            String previousToken = optionalUser.get().getToken();
+            if (previousToken != null)
+                TransactionCallbacks.afterCommit(() -> sessionStore.remove(previousToken));
+            if (rehashedPassword != null)
+                optionalUser.get().setPassword(rehashedPassword);
+            optionalUser.get().setToken(token);
+            optionalUser.get().setTokenExpiresAt(sessionStore.newSessionExpiry());
+            return optionalUser.get();
+        });
+        if (user == null)
+            return null;
+
+        sessionStore.put(token, user);
+        return new LoginResponseDto(token, user.isAdmin());
+    }
+
+    /**
+     * Ends the session belonging to the bearer token of the request, both in the session store and in the database.
+     */
+    @PostMapping("api/user/logout")
+    public void logout(HttpServletRequest request) {
+        String token = AuthenticationInterceptor.resolveToken(request);
+        if (token == null)
+            return;
+
+        sessionStore.remove(token);
+        Optional<User> userOptional = userRepository.findByToken(token);
+        if (userOptional.isPresent()) {
+            userOptional.get().setToken(null);
+            userOptional.get().setTokenExpiresAt(null);
+            userRepository.save(userOptional.get());
+        }
+    }
+
+    public String generateRandomString(int targetStringLength) {
+        return tokenGenerator.generate(targetStringLength);
     }
 
     public String RandomStringGenerator() {
@@ -0,0 +1,39 @@
+package wt.bookstore.backend.datasource;
+
+/**
+ * Whether the work on the current thread may read from a replica. Set per request by the
+ * {@link ReplicaRoutingInterceptor}; on threads where it was not set everything goes to the primary. Only read-only
+ * transactions are routed to a replica, see {@link ReadWriteRoutingDataSource}.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> REPLICA_ALLOWED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static void allowReplica() {
+        REPLICA_ALLOWED.set(Boolean.TRUE);
+    }
+
+    public static boolean isReplicaAllowed() {
+        return REPLICA_ALLOWED.get() != null;
+    }
+
+    /**
+     * Continues with the given routing on the current thread, for work that a request hands to another thread. End it
+     * with {@link #clear()} on that thread.
+     *
+     * @param replicaAllowed the value of {@link #isReplicaAllowed()} on the thread of the request
+     */
+    public static void resume(boolean replicaAllowed) {
+        if (replicaAllowed)
+            REPLICA_ALLOWED.set(Boolean.TRUE);
+        else
+            REPLICA_ALLOWED.remove();
+    }
+
+    public static void clear() {
+        REPLICA_ALLOWED.remove();
+    }
+}
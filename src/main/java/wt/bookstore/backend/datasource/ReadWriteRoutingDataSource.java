@@ -0,0 +1,58 @@
+package wt.bookstore.backend.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions of requests that may read from a replica (see {@link DataSourceRouting}) to one of the
+ * {@link ReplicaDataSources}, and everything else to the primary. If the replica cannot hand out a connection, it is
+ * taken out of rotation and the primary is used instead.
+ *
+ * The transaction has to be started before the connection is taken, which is why this data source is wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, and why Hibernate releases connections
+ * after every transaction instead of holding them for the whole request.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaDataSources replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaDataSources replicas) {
+        this.replicas = replicas;
+
+        Map<Object, Object> targets = new HashMap<>(replicas.getDataSources());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !DataSourceRouting.isReplicaAllowed())
+            return PRIMARY;
+
+        String replica = replicas.next();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (!PRIMARY.equals(key)) {
+            try {
+                return getResolvedDataSources().get(key).getConnection();
+            } catch (SQLException e) {
+                replicas.failed((String) key, e);
+            }
+        }
+        return getResolvedDataSources().get(PRIMARY).getConnection();
+    }
+}
@@ -0,0 +1,164 @@
+package wt.bookstore.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pools of the read replicas, configured with {@code bookstore.datasource.replica-urls}. Replicas are used
+ * round robin. A replica that fails a health check, or that cannot hand out a connection, is skipped until a later
+ * health check succeeds again; without healthy replicas all reads go to the primary.
+ *
+ * Replicas have a short connection timeout, so a replica that is down costs a read at most that long before it falls
+ * back to the primary.
+ *
+ * Like the primary pool, the replica pools publish hikaricp.* metrics, tagged with their pool name.
+ */
+@Component
+public class ReplicaDataSources {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaDataSources.class);
+
+    @Value("${bookstore.datasource.replica-urls:}")
+    private List<String> urls;
+
+    @Value("${bookstore.datasource.replica-username:${spring.datasource.username:}}")
+    private String username;
+
+    @Value("${bookstore.datasource.replica-password:${spring.datasource.password:}}")
+    private String password;
+
+    @Value("${spring.datasource.driver-class-name:}")
+    private String driverClassName;
+
+    @Value("${bookstore.datasource.replica-pool-size:10}")
+    private int poolSize;
+
+    @Value("${bookstore.datasource.replica-connection-timeout-ms:1000}")
+    private long connectionTimeoutMillis;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private Replica[] order = new Replica[0];
+
+    @PostConstruct
+    void createPools() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        for (String url : urls) {
+            if (url.isBlank())
+                continue;
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(url.trim());
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            if (!driverClassName.isBlank())
+                dataSource.setDriverClassName(driverClassName);
+            dataSource.setMaximumPoolSize(poolSize);
+            dataSource.setConnectionTimeout(connectionTimeoutMillis);
+            dataSource.setReadOnly(true);
+            // Start even if a replica is down, the health check picks it up once it is back
+            dataSource.setInitializationFailTimeout(-1);
+            if (registry != null)
+                dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+
+            Replica replica = new Replica(dataSource.getPoolName(), dataSource);
+            replicas.put(replica.name, replica);
+        }
+        order = replicas.values().toArray(new Replica[0]);
+    }
+
+    /**
+     * @return the data sources of the replicas by name, for the {@link ReadWriteRoutingDataSource}
+     */
+    public Map<String, DataSource> getDataSources() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach((name, replica) -> dataSources.put(name, replica.dataSource));
+        return dataSources;
+    }
+
+    /**
+     * @return the name of the next healthy replica, or null if there is none
+     */
+    public String next() {
+        Replica[] replicas = order;
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, replicas.length));
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = replicas[(start + i) % replicas.length];
+            if (replica.healthy)
+                return replica.name;
+        }
+        return null;
+    }
+
+    public boolean isHealthy(String name) {
+        Replica replica = replicas.get(name);
+        return replica != null && replica.healthy;
+    }
+
+    /**
+     * Takes a replica out of rotation after it failed to hand out a connection.
+     */
+    public void failed(String name, Exception e) {
+        Replica replica = replicas.get(name);
+        if (replica != null && replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} failed, reading from the primary until it is healthy again: {}", name, e.toString());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.datasource.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : order) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(1);
+            } catch (Exception e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy)
+                log.warn("Replica {} is {}", replica.name, healthy ? "healthy again" : "down");
+            replica.healthy = healthy;
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        replicas.values().forEach(replica -> replica.dataSource.close());
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final HikariDataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
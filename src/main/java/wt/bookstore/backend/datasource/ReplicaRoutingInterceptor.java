@@ -0,0 +1,85 @@
+package wt.bookstore.backend.datasource;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+import wt.bookstore.backend.security.UserSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lets GET requests read from a replica, see {@link DataSourceRouting}. Other requests use the primary only.
+ *
+ * Replicas lag behind the primary, so a client that just changed something could read the old data right after. To
+ * read its own writes, a client that sent a write request reads from the primary for
+ * {@code bookstore.datasource.read-your-writes-ms} afterwards. Clients are recognized by their session, or without a
+ * session by their address.
+ */
+@Component
+public class ReplicaRoutingInterceptor implements AsyncHandlerInterceptor {
+
+    @Value("${bookstore.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMillis;
+
+    /**
+     * Until when a client reads from the primary, by client
+     */
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC)
+            return true;
+
+        if (isRead(request)) {
+            Long until = primaryUntil.get(client(request));
+            if (until == null || until < System.currentTimeMillis())
+                DataSourceRouting.allowReplica();
+        } else {
+            // Before the write, so a read that is sent as soon as the response arrives already sees it
+            pin(request);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        DataSourceRouting.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        DataSourceRouting.clear();
+        if (!isRead(request) && request.getDispatcherType() != DispatcherType.ASYNC)
+            pin(request);
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.datasource.read-your-writes-eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        primaryUntil.values().removeIf(until -> until < now);
+    }
+
+    private void pin(HttpServletRequest request) {
+        primaryUntil.put(client(request), System.currentTimeMillis() + readYourWritesMillis);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        return "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+    }
+
+    private static String client(HttpServletRequest request) {
+        Object session = request.getAttribute(AuthenticationInterceptor.SESSION_ATTRIBUTE);
+        if (session instanceof UserSession userSession)
+            return "user:" + userSession.getUserId();
+        return "address:" + request.getRemoteAddr();
+    }
+}
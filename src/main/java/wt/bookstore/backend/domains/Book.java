@@ -5,13 +5,23 @@ import java.util.List;
 import java.util.Random;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
- * The entity used for the books database
+ * The entity used for the books database. Books and their keywords are kept in the second-level cache, see
+ * application.conf for the cache sizes.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 public class Book {
 
+	/**
+	 * Collection role of {@link #keywords}, to evict it from the cache. Changes to book_keywords that bypass Hibernate
+	 * must do so.
+	 */
+	public static final String KEYWORDS_ROLE = "wt.bookstore.backend.domains.Book.keywords";
+
 	@Id
 	@GeneratedValue(strategy = GenerationType.IDENTITY)
 	private long id;
@@ -26,6 +36,7 @@ public class Book {
 	private String author;
 
 	@ManyToMany()
+	@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book_keywords")
 	@JoinTable(
 			name = "book_keywords",
 			joinColumns = @JoinColumn(name = "book_id"),
@@ -1,12 +1,16 @@
 package wt.bookstore.backend.domains;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 
 /**
- * The entity used for the copies database
+ * The entity used for the copies database. Copies are kept in the second-level cache.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "copy")
 public class Copy {
 
 	@Id
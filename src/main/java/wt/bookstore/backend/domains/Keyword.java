@@ -2,19 +2,28 @@ package wt.bookstore.backend.domains;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+/**
+ * The entity used for the keywords database. Keyword names are unique and stored normalized, see
+ * {@link #normalizeName(String)}. Keywords are kept in the second-level cache.
+ */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "keyword")
+@Table(indexes = @Index(name = "idx_keyword_name", columnList = "name", unique = true))
 public class Keyword {
 
-	// TODO: Make keyword name non-case-sensitive
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private long id;
@@ -52,5 +61,12 @@ public class Keyword {
 	public void addBook(Book book){
 		books.add(book);
 	}
+
+	/**
+	 * Keyword names are case-insensitive: they are trimmed and stored in lower case.
+	 */
+	public static String normalizeName(String name) {
+		return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+	}
     
 }
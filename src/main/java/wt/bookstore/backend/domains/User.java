@@ -1,13 +1,18 @@
 package wt.bookstore.backend.domains;
 
+import java.time.Instant;
 import java.util.List;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
- * The entity used for the users database
+ * The entity used for the users database. Users are kept in the second-level cache.
  */
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@Table(indexes = @Index(name = "idx_user_email_address", columnList = "emailAddress", unique = true))
 public class User {
 
 	@Id
@@ -18,12 +23,19 @@ public class User {
 	private String firstName;
 	@Column(nullable = false, length = 64)
 	private String lastName;
+	/**
+	 * Always stored in lower case, see {@link wt.bookstore.backend.repository.UserEmailIndex#normalize(String)}
+	 */
 	@Column(nullable = false, length = 128)
 	private String emailAddress;
 	@Column(nullable = false, length = 128)
 	private String password;
 
 	private String token;
+	/**
+	 * When the session of the token ends at the latest, see {@link wt.bookstore.backend.security.SessionStore}
+	 */
+	private Instant tokenExpiresAt;
 	private boolean admin;
 
 	public String getPassword() {
@@ -42,6 +54,14 @@ public class User {
 		this.token = token;
 	}
 
+	public Instant getTokenExpiresAt() {
+		return tokenExpiresAt;
+	}
+
+	public void setTokenExpiresAt(Instant tokenExpiresAt) {
+		this.tokenExpiresAt = tokenExpiresAt;
+	}
+
 	@OneToMany(mappedBy = "user", orphanRemoval = true)
 	private List<Loan> loans;
 
@@ -0,0 +1,68 @@
+package wt.bookstore.backend.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for a record of the audit journal: a create, update or delete of an entity.
+ */
+public class AuditRecordDto {
+
+    private Instant timestamp;
+
+    /**
+     * Kind of entity: "book", "copy", "keyword", "loan", "reservation" or "user"
+     */
+    private String entity;
+
+    /**
+     * "create", "update" or "delete"
+     */
+    private String operation;
+
+    private long entityId;
+
+    /**
+     * Id of the user whose session made the change, 0 if it was made without a session
+     */
+    private long userId;
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    public long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(long entityId) {
+        this.entityId = entityId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+}
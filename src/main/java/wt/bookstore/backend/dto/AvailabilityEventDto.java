@@ -0,0 +1,83 @@
+package wt.bookstore.backend.dto;
+
+/**
+ * Data Transfer Object for a change to the copies, loans or reservations of a book, as it is pushed to the subscribers
+ * of the availability events.
+ */
+public class AvailabilityEventDto {
+
+    /**
+     * What changed: "copy", "loan" or "reservation". Also the name of the server-sent event.
+     */
+    private String type;
+
+    /**
+     * How it changed: "created", "updated" or "deleted"
+     */
+    private String change;
+
+    /**
+     * Id of the copy, loan or reservation that changed
+     */
+    private long id;
+
+    private long bookId;
+
+    /**
+     * Id of the copy, for copies and loans
+     */
+    private Long copyId;
+
+    /**
+     * Whether the copy is available after the change, for copies and loans
+     */
+    private Boolean available;
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getChange() {
+        return change;
+    }
+
+    public void setChange(String change) {
+        this.change = change;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Long getCopyId() {
+        return copyId;
+    }
+
+    public void setCopyId(Long copyId) {
+        this.copyId = copyId;
+    }
+
+    public Boolean getAvailable() {
+        return available;
+    }
+
+    public void setAvailable(Boolean available) {
+        this.available = available;
+    }
+}
@@ -0,0 +1,40 @@
+package wt.bookstore.backend.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A single operation of a batch: the method and path of the endpoint it replaces, e.g. PUT loan/12, with the body that
+ * endpoint takes.
+ */
+public class BatchOperationDto {
+
+    private String method;
+
+    private String path;
+
+    private JsonNode body;
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public JsonNode getBody() {
+        return body;
+    }
+
+    public void setBody(JsonNode body) {
+        this.body = body;
+    }
+}
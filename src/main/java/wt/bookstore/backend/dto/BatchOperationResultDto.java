@@ -0,0 +1,48 @@
+package wt.bookstore.backend.dto;
+
+/**
+ * Result of a single operation of a batch: the HTTP status the endpoint would have answered with, and its response
+ * body or the reason it failed. Operations that were rolled back or not run because another operation failed get
+ * status 424 (Failed Dependency).
+ */
+public class BatchOperationResultDto {
+
+    private int status;
+
+    private Object body;
+
+    private String error;
+
+    public BatchOperationResultDto() {
+    }
+
+    public BatchOperationResultDto(int status, Object body, String error) {
+        this.status = status;
+        this.body = body;
+        this.error = error;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public void setBody(Object body) {
+        this.body = body;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,31 @@
+package wt.bookstore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request body of the batch endpoint: the operations to run, in order. With atomic set, either all operations succeed
+ * or none of them is applied; without it the operations that fail are left out and the others are applied.
+ */
+public class BatchRequestDto {
+
+    private boolean atomic;
+
+    private List<BatchOperationDto> operations = new ArrayList<>();
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    public void setAtomic(boolean atomic) {
+        this.atomic = atomic;
+    }
+
+    public List<BatchOperationDto> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<BatchOperationDto> operations) {
+        this.operations = operations;
+    }
+}
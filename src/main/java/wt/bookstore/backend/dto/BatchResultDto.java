@@ -0,0 +1,31 @@
+package wt.bookstore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a batch, sent to the frontend: whether changes were committed and the result of every operation, in the
+ * order of the request.
+ */
+public class BatchResultDto {
+
+    private boolean committed;
+
+    private List<BatchOperationResultDto> results = new ArrayList<>();
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    public void setCommitted(boolean committed) {
+        this.committed = committed;
+    }
+
+    public List<BatchOperationResultDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchOperationResultDto> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,40 @@
+package wt.bookstore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of tagging books with keywords in bulk, sent to the frontend.
+ */
+public class BulkKeywordResultDto {
+
+    private int tagged;
+
+    private int createdKeywords;
+
+    private List<Long> unknownBookIds = new ArrayList<>();
+
+    public int getTagged() {
+        return tagged;
+    }
+
+    public void setTagged(int tagged) {
+        this.tagged = tagged;
+    }
+
+    public int getCreatedKeywords() {
+        return createdKeywords;
+    }
+
+    public void setCreatedKeywords(int createdKeywords) {
+        this.createdKeywords = createdKeywords;
+    }
+
+    public List<Long> getUnknownBookIds() {
+        return unknownBookIds;
+    }
+
+    public void setUnknownBookIds(List<Long> unknownBookIds) {
+        this.unknownBookIds = unknownBookIds;
+    }
+}
@@ -0,0 +1,37 @@
+package wt.bookstore.backend.dto;
+
+import java.util.List;
+
+/**
+ * Dictionary-encoded list for the compact list endpoints. Strings that repeat on many items, like user names and book
+ * titles, are sent once in {@link #getStrings()}; the items refer to them by index, or -1 for null. The items
+ * themselves are sent as arrays instead of objects, see {@link CompactLoanDto} and {@link CompactReservationDto} for
+ * the order of their fields.
+ */
+public class CompactListDto<T> {
+
+    private List<String> strings;
+
+    private List<T> items;
+
+    public CompactListDto(List<String> strings, List<T> items) {
+        this.strings = strings;
+        this.items = items;
+    }
+
+    public List<String> getStrings() {
+        return strings;
+    }
+
+    public void setStrings(List<String> strings) {
+        this.strings = strings;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,76 @@
+package wt.bookstore.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDate;
+
+/**
+ * {@link LoanDto} in a {@link CompactListDto}: sent as the array
+ * [id, startDate, endDate, userFirstName, userLastName, bookTitle], where the names and the title are indexes in the
+ * strings of the list.
+ */
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"id", "startDate", "endDate", "userFirstName", "userLastName", "bookTitle"})
+public class CompactLoanDto {
+
+    private long id;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    private int userFirstName;
+
+    private int userLastName;
+
+    private int bookTitle;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public int getUserFirstName() {
+        return userFirstName;
+    }
+
+    public void setUserFirstName(int userFirstName) {
+        this.userFirstName = userFirstName;
+    }
+
+    public int getUserLastName() {
+        return userLastName;
+    }
+
+    public void setUserLastName(int userLastName) {
+        this.userLastName = userLastName;
+    }
+
+    public int getBookTitle() {
+        return bookTitle;
+    }
+
+    public void setBookTitle(int bookTitle) {
+        this.bookTitle = bookTitle;
+    }
+}
@@ -0,0 +1,86 @@
+package wt.bookstore.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDate;
+
+/**
+ * {@link ReservationDto} in a {@link CompactListDto}: sent as the array
+ * [id, date, userId, bookId, userFirstName, userLastName, bookTitle], where the names and the title are indexes in the
+ * strings of the list.
+ */
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({"id", "date", "userId", "bookId", "userFirstName", "userLastName", "bookTitle"})
+public class CompactReservationDto {
+
+    private long id;
+
+    private LocalDate date;
+
+    private long userId;
+
+    private long bookId;
+
+    private int userFirstName;
+
+    private int userLastName;
+
+    private int bookTitle;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(long bookId) {
+        this.bookId = bookId;
+    }
+
+    public int getUserFirstName() {
+        return userFirstName;
+    }
+
+    public void setUserFirstName(int userFirstName) {
+        this.userFirstName = userFirstName;
+    }
+
+    public int getUserLastName() {
+        return userLastName;
+    }
+
+    public void setUserLastName(int userLastName) {
+        this.userLastName = userLastName;
+    }
+
+    public int getBookTitle() {
+        return bookTitle;
+    }
+
+    public void setBookTitle(int bookTitle) {
+        this.bookTitle = bookTitle;
+    }
+}
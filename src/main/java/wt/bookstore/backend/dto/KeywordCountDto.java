@@ -0,0 +1,37 @@
+package wt.bookstore.backend.dto;
+
+/**
+ * Data Transfer Object for a keyword together with the number of books tagged with it, used for the tag cloud.
+ */
+public class KeywordCountDto {
+
+    private long id;
+
+    private String name;
+
+    private long count;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
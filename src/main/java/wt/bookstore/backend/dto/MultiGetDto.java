@@ -0,0 +1,31 @@
+package wt.bookstore.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a multi-get (book/multi, copy/multi, user/multi), sent to the frontend. The items are in the order of the
+ * requested ids; ids that do not exist are left out of the items and listed in the missing ids.
+ */
+public class MultiGetDto<T> {
+
+    private List<T> items = new ArrayList<>();
+
+    private List<Long> missingIds = new ArrayList<>();
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
@@ -12,8 +12,7 @@ public class SaveUserDto {
 
     private String emailAddress;
 
-//    @Value("${password: 1234")
-//    private String password;
+    private String password;
 
     private boolean admin;
 
@@ -25,13 +24,13 @@ public class SaveUserDto {
         this.emailAddress = emailAddress;
     }
 
-//    public String getPassword() {
-//        return password;
-//    }
-//
-//    public void setPassword(String password) {
-//        this.password = password;
-//    }
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
 
     public String getFirstName() {
         return firstName;
@@ -0,0 +1,176 @@
+package wt.bookstore.backend.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import wt.bookstore.backend.config.TransactionCallbacks;
+import wt.bookstore.backend.domains.Copy;
+import wt.bookstore.backend.domains.Loan;
+import wt.bookstore.backend.domains.Reservation;
+import wt.bookstore.backend.dto.AvailabilityEventDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes changes to the copies, loans and reservations of books to clients as server-sent events, so they do not have
+ * to poll the copy and book endpoints. Clients subscribe to the events of one book or of all books.
+ *
+ * The write endpoints report their changes here. An event is sent once the transaction of the change has committed, and
+ * never when it rolls back. Sending happens on the {@code availabilityEventExecutor}, so the request thread of the write
+ * does not wait for the subscribers. A comment is sent to every subscriber regularly, which keeps idle connections
+ * open through proxies and cleans up the subscribers that went away.
+ */
+@Component
+public class AvailabilityEvents {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityEvents.class);
+
+    @Autowired
+    @Qualifier("availabilityEventExecutor")
+    private ThreadPoolTaskExecutor availabilityEventExecutor;
+
+    @Value("${bookstore.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${bookstore.events.max-subscribers:1000}")
+    private int maxSubscribers;
+
+    private final List<SseEmitter> allBooks = new CopyOnWriteArrayList<>();
+
+    private final Map<Long, List<SseEmitter>> byBook = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    /**
+     * Subscribes to the events of one book, or of all books if the book id is null. Responds with 503 when there are
+     * too many subscribers already.
+     */
+    public SseEmitter subscribe(Long bookId) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many subscribers");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        if (bookId == null) {
+            allBooks.add(emitter);
+        } else {
+            byBook.compute(bookId, (id, emitters) -> {
+                List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+                list.add(emitter);
+                return list;
+            });
+        }
+
+        Runnable unsubscribe = () -> unsubscribe(bookId, emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        return emitter;
+    }
+
+    public void copyChanged(String change, Copy copy) {
+        AvailabilityEventDto event = event("copy", change, copy.getId(), copy.getBook().getId());
+        event.setCopyId(copy.getId());
+        event.setAvailable(copy.isAvailable());
+        publish(event);
+    }
+
+    public void loanChanged(String change, Loan loan) {
+        AvailabilityEventDto event = event("loan", change, loan.getId(), loan.getCopy().getBook().getId());
+        event.setCopyId(loan.getCopy().getId());
+        event.setAvailable(loan.getCopy().isAvailable());
+        publish(event);
+    }
+
+    public void reservationChanged(String change, Reservation reservation) {
+        publish(event("reservation", change, reservation.getId(), reservation.getBook().getId()));
+    }
+
+    /**
+     * Sends the event to the subscribers of its book and of all books, after the current transaction has committed.
+     */
+    public void publish(AvailabilityEventDto event) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (subscribers.get() == 0)
+                return;
+            try {
+                availabilityEventExecutor.execute(() -> send(event));
+            } catch (RejectedExecutionException e) {
+                log.warn("Dropped {} event of book {}, the event queue is full", event.getType(), event.getBookId());
+            }
+        });
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.events.heartbeat-interval-ms:30000}")
+    public void heartbeat() {
+        Supplier<SseEmitter.SseEventBuilder> comment = () -> SseEmitter.event().comment("");
+        allBooks.forEach(emitter -> send(emitter, comment));
+        byBook.values().forEach(emitters -> emitters.forEach(emitter -> send(emitter, comment)));
+    }
+
+    private void send(AvailabilityEventDto event) {
+        Supplier<SseEmitter.SseEventBuilder> message = () -> SseEmitter.event()
+                .name(event.getType())
+                .data(event, MediaType.APPLICATION_JSON);
+        allBooks.forEach(emitter -> send(emitter, message));
+        byBook.getOrDefault(event.getBookId(), List.of()).forEach(emitter -> send(emitter, message));
+    }
+
+    /**
+     * Takes a new event builder per subscriber, because building an event changes the builder.
+     */
+    private static void send(SseEmitter emitter, Supplier<SseEmitter.SseEventBuilder> message) {
+        try {
+            emitter.send(message.get());
+        } catch (Exception e) {
+            // The client went away, completing the emitter unsubscribes it
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(Long bookId, SseEmitter emitter) {
+        boolean removed;
+        if (bookId == null) {
+            removed = allBooks.remove(emitter);
+        } else {
+            boolean[] found = new boolean[1];
+            byBook.computeIfPresent(bookId, (id, emitters) -> {
+                found[0] = emitters.remove(emitter);
+                return emitters.isEmpty() ? null : emitters;
+            });
+            removed = found[0];
+        }
+        // The callbacks of an emitter can run more than once, only count the first time
+        if (removed)
+            subscribers.decrementAndGet();
+    }
+
+    private static AvailabilityEventDto event(String type, String change, long id, long bookId) {
+        AvailabilityEventDto event = new AvailabilityEventDto();
+        event.setType(type);
+        event.setChange(change);
+        event.setId(id);
+        event.setBookId(bookId);
+        return event;
+    }
+}
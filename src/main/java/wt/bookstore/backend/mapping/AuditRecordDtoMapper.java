@@ -0,0 +1,26 @@
+package wt.bookstore.backend.mapping;
+
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.audit.AuditRecord;
+import wt.bookstore.backend.dto.AuditRecordDto;
+
+import java.time.Instant;
+
+@Component
+public class AuditRecordDtoMapper {
+
+    public AuditRecordDto auditRecordToDto(AuditRecord auditRecord) {
+        /*
+         * Used to create an AuditRecordDto object from a record of the audit journal
+         */
+        AuditRecordDto auditRecordDto = new AuditRecordDto();
+
+        auditRecordDto.setTimestamp(Instant.ofEpochMilli(auditRecord.getTimestamp()));
+        auditRecordDto.setEntity(auditRecord.getEntity().getName());
+        auditRecordDto.setOperation(auditRecord.getOperation().getName());
+        auditRecordDto.setEntityId(auditRecord.getEntityId());
+        auditRecordDto.setUserId(auditRecord.getUserId());
+
+        return auditRecordDto;
+    }
+}
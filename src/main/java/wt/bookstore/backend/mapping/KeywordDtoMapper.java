@@ -7,9 +7,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import wt.bookstore.backend.domains.Book;
 import wt.bookstore.backend.domains.Keyword;
+import wt.bookstore.backend.dto.KeywordCountDto;
 import wt.bookstore.backend.dto.KeywordDto;
 import wt.bookstore.backend.dto.SaveKeywordDto;
 import wt.bookstore.backend.repository.IBookRepository;
+import wt.bookstore.backend.repository.KeywordPopularity;
 
 @Component
 public class KeywordDtoMapper {
@@ -22,7 +24,7 @@ public class KeywordDtoMapper {
          * Used to create a Keyword object from a SaveKeywordDto object
          */
         Keyword keyword = new Keyword();
-        keyword.setName(saveKeywordDto.getName());
+        keyword.setName(Keyword.normalizeName(saveKeywordDto.getName()));
 
         // Creates an empty booklist to append the book corresponding to the id in the
         // saveKeywordDto object, so a keyword object can be created
@@ -48,4 +50,17 @@ public class KeywordDtoMapper {
 
         return keywordDto;
     }
+
+    public KeywordCountDto keywordCountToDto(KeywordPopularity.KeywordCount keywordCount){
+        /*
+         * Used to create a KeywordCountDto object from a keyword count of the KeywordPopularity
+         */
+        KeywordCountDto keywordCountDto = new KeywordCountDto();
+
+        keywordCountDto.setId(keywordCount.getId());
+        keywordCountDto.setName(keywordCount.getName());
+        keywordCountDto.setCount(keywordCount.getCount());
+
+        return keywordCountDto;
+    }
 }
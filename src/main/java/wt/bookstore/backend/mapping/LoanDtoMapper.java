@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 import wt.bookstore.backend.domains.Copy;
 import wt.bookstore.backend.domains.Loan;
 import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.CompactLoanDto;
 import wt.bookstore.backend.dto.LoanDto;
 import wt.bookstore.backend.dto.SaveLoanDto;
 import wt.bookstore.backend.repository.ICopyRepository;
@@ -52,6 +53,7 @@ public class LoanDtoMapper {
          * The loan get DTO only has to contain information usefull to the user, e.g. Can contain the copy name instead
          * of the copy id
          */
+        loanDto.setId(loan.getId());
         loanDto.setStartDate(loan.getStartDate());
         loanDto.setEndDate(loan.getEndDate());
         loanDto.setUserFirstName(loan.getUser().getFirstName());
@@ -61,5 +63,19 @@ public class LoanDtoMapper {
 
     }
 
+    public CompactLoanDto loanToCompactDto(Loan loan, StringDictionary strings) {
+        /*
+         * Used to create the dictionary-encoded form of a LoanDto, the names and the title are added to the strings
+         */
+        CompactLoanDto compactLoanDto = new CompactLoanDto();
+        compactLoanDto.setId(loan.getId());
+        compactLoanDto.setStartDate(loan.getStartDate());
+        compactLoanDto.setEndDate(loan.getEndDate());
+        compactLoanDto.setUserFirstName(strings.indexOf(loan.getUser().getFirstName()));
+        compactLoanDto.setUserLastName(strings.indexOf(loan.getUser().getLastName()));
+        compactLoanDto.setBookTitle(strings.indexOf(loan.getCopy().getBook().getTitle()));
+        return compactLoanDto;
+    }
+
 	
 }
@@ -0,0 +1,27 @@
+package wt.bookstore.backend.mapping;
+
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.dto.MultiGetDto;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class MultiGetDtoMapper {
+
+    public <T, D> MultiGetDto<D> toDto(List<Long> ids, List<T> entities, Function<T, D> mapper) {
+        /*
+         * Used to create a MultiGetDto from the result of MultiGetRepository.findAllByIdInOrder, which has null for
+         * every id that does not exist
+         */
+        MultiGetDto<D> multiGetDto = new MultiGetDto<>();
+        for (int i = 0; i < ids.size(); i++) {
+            T entity = entities.get(i);
+            if (entity == null)
+                multiGetDto.getMissingIds().add(ids.get(i));
+            else
+                multiGetDto.getItems().add(mapper.apply(entity));
+        }
+        return multiGetDto;
+    }
+}
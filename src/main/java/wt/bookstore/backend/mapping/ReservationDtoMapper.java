@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import wt.bookstore.backend.domains.Book;
 import wt.bookstore.backend.domains.Reservation;
 import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.CompactReservationDto;
 import wt.bookstore.backend.dto.ReservationDto;
 import wt.bookstore.backend.dto.SaveReservationDto;
 import wt.bookstore.backend.repository.IBookRepository;
@@ -59,4 +60,20 @@ public class ReservationDtoMapper {
 
         return reservationDto;
     }
+
+    public CompactReservationDto reservationToCompactDto(Reservation reservation, StringDictionary strings){
+        /*
+         * Used to create the dictionary-encoded form of a ReservationDto, the names and the title are added to the
+         * strings
+         */
+        CompactReservationDto compactReservationDto = new CompactReservationDto();
+        compactReservationDto.setId(reservation.getId());
+        compactReservationDto.setDate(reservation.getDate());
+        compactReservationDto.setUserId(reservation.getUser().getId());
+        compactReservationDto.setBookId(reservation.getBook().getId());
+        compactReservationDto.setUserFirstName(strings.indexOf(reservation.getUser().getFirstName()));
+        compactReservationDto.setUserLastName(strings.indexOf(reservation.getUser().getLastName()));
+        compactReservationDto.setBookTitle(strings.indexOf(reservation.getBook().getTitle()));
+        return compactReservationDto;
+    }
 }
@@ -0,0 +1,33 @@
+package wt.bookstore.backend.mapping;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The strings of a {@link wt.bookstore.backend.dto.CompactListDto}, built up while the items are mapped. Not thread
+ * safe: use one per response.
+ */
+public class StringDictionary {
+
+    private final List<String> strings = new ArrayList<>();
+
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /**
+     * @return the index of the string, which is added if it is not in the dictionary yet, or -1 for null
+     */
+    public int indexOf(String string) {
+        if (string == null)
+            return -1;
+        return indexes.computeIfAbsent(string, s -> {
+            strings.add(s);
+            return strings.size() - 1;
+        });
+    }
+
+    public List<String> getStrings() {
+        return strings;
+    }
+}
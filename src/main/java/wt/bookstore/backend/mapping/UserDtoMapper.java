@@ -1,14 +1,20 @@
 package wt.bookstore.backend.mapping;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import wt.bookstore.backend.domains.User;
 import wt.bookstore.backend.dto.SaveUserDto;
 import wt.bookstore.backend.dto.UserDto;
+import wt.bookstore.backend.repository.UserEmailIndex;
+import wt.bookstore.backend.security.PasswordHasher;
 
 @Component
 public class UserDtoMapper {
     private String defaultPassword = "1234";
 
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     public User dtoToUser(SaveUserDto saveUserDto){
         /*
          * Used to create a User object from a SaveUserDto object
@@ -16,8 +22,10 @@ public class UserDtoMapper {
         User user = new User();
         user.setFirstName(saveUserDto.getFirstName());
         user.setLastName(saveUserDto.getLastName());
-        user.setEmailAddress(saveUserDto.getEmailAddress());
-        user.setPassword(defaultPassword);
+        user.setEmailAddress(UserEmailIndex.normalize(saveUserDto.getEmailAddress()));
+        // Users created without a password get the default one, which they are expected to change
+        String password = saveUserDto.getPassword() != null ? saveUserDto.getPassword() : defaultPassword;
+        user.setPassword(passwordHasher.hash(password));
         user.setAdmin(saveUserDto.isAdmin());
 
         return user;
@@ -29,6 +37,7 @@ public class UserDtoMapper {
          */
         UserDto userDto = new UserDto();
 
+        userDto.setId(user.getId());
         userDto.setAdmin(user.isAdmin());
         userDto.setEmailAddress(user.getEmailAddress());
         userDto.setFirstName(user.getFirstName());
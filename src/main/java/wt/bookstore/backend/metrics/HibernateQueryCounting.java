@@ -0,0 +1,47 @@
+package wt.bookstore.backend.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks the {@link QueryCounter} into Hibernate: a statement inspector counts every SQL statement and event listeners
+ * count every entity load and collection initialization.
+ */
+@Configuration
+public class HibernateQueryCounting {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Static, because the entity manager factory this configuration depends on needs the customizer to be created.
+     */
+    @Bean
+    public static HibernatePropertiesCustomizer queryCountingStatementInspector() {
+        StatementInspector inspector = sql -> {
+            QueryCounter.statement();
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event -> QueryCounter.entityLoad());
+        registry.appendListeners(EventType.INIT_COLLECTION,
+                (InitializeCollectionEventListener) event -> QueryCounter.collectionInitialization());
+    }
+}
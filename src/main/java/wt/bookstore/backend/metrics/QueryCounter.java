@@ -0,0 +1,86 @@
+package wt.bookstore.backend.metrics;
+
+/**
+ * Counts the SQL statements, entity loads and collection initializations done by Hibernate on the current thread.
+ * Counting starts with {@link #start()}; on threads where it was not started nothing is counted.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<QueryCounts> COUNTS = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    public static void start() {
+        COUNTS.set(new QueryCounts());
+    }
+
+    /**
+     * Stops counting on the current thread.
+     *
+     * @return the counts since {@link #start()}, or null if counting was not started
+     */
+    public static QueryCounts stop() {
+        QueryCounts counts = COUNTS.get();
+        COUNTS.remove();
+        return counts;
+    }
+
+    /**
+     * @return the counts of the current thread, or null if counting was not started
+     */
+    public static QueryCounts current() {
+        return COUNTS.get();
+    }
+
+    /**
+     * Continues counting into the given counts on the current thread, for work that a request hands to another thread.
+     * End it with {@link #stop()} on that thread. Does nothing if counts is null.
+     */
+    public static void resume(QueryCounts counts) {
+        if (counts != null)
+            COUNTS.set(counts);
+    }
+
+    static void statement() {
+        QueryCounts counts = COUNTS.get();
+        if (counts != null)
+            counts.statements++;
+    }
+
+    static void entityLoad() {
+        QueryCounts counts = COUNTS.get();
+        if (counts != null)
+            counts.entityLoads++;
+    }
+
+    static void collectionInitialization() {
+        QueryCounts counts = COUNTS.get();
+        if (counts != null)
+            counts.collectionInitializations++;
+    }
+
+    /**
+     * The counts of a single request.
+     */
+    public static class QueryCounts {
+
+        private int statements;
+
+        private int entityLoads;
+
+        private int collectionInitializations;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public int getEntityLoads() {
+            return entityLoads;
+        }
+
+        public int getCollectionInitializations() {
+            return collectionInitializations;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package wt.bookstore.backend.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the {@link QueryCounter.QueryCounts} of every request per endpoint. Requests with more statements than
+ * {@code bookstore.diagnostics.statement-threshold} are logged and counted as flagged; these usually point to lazy
+ * loading in a loop (N+1 queries).
+ */
+@Component
+public class QueryDiagnostics {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryDiagnostics.class);
+
+    private final Map<String, EndpointStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Value("${bookstore.diagnostics.statement-threshold:20}")
+    private int statementThreshold;
+
+    public void record(String endpoint, QueryCounter.QueryCounts counts) {
+        boolean flagged = counts.getStatements() > statementThreshold;
+        if (flagged)
+            log.warn("{} executed {} statements ({} entity loads, {} collection initializations)", endpoint,
+                    counts.getStatements(), counts.getEntityLoads(), counts.getCollectionInitializations());
+
+        statistics.computeIfAbsent(endpoint, EndpointStatistics::new).record(counts, flagged);
+    }
+
+    /**
+     * Returns the statistics of the {@code limit} endpoints with the highest maximum number of statements per request.
+     */
+    public List<EndpointStatistics> worstOffenders(int limit) {
+        return statistics.values().stream()
+                .sorted(Comparator.comparingLong(EndpointStatistics::getMaxStatements).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public static class EndpointStatistics {
+
+        private final String endpoint;
+
+        private long requests;
+
+        private long flaggedRequests;
+
+        private long totalStatements;
+
+        private long maxStatements;
+
+        private long maxEntityLoads;
+
+        private long maxCollectionInitializations;
+
+        EndpointStatistics(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized void record(QueryCounter.QueryCounts counts, boolean flagged) {
+            requests++;
+            if (flagged)
+                flaggedRequests++;
+            totalStatements += counts.getStatements();
+            maxStatements = Math.max(maxStatements, counts.getStatements());
+            maxEntityLoads = Math.max(maxEntityLoads, counts.getEntityLoads());
+            maxCollectionInitializations = Math.max(maxCollectionInitializations, counts.getCollectionInitializations());
+        }
+
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        public synchronized long getRequests() {
+            return requests;
+        }
+
+        public synchronized long getFlaggedRequests() {
+            return flaggedRequests;
+        }
+
+        public synchronized double getAverageStatements() {
+            return requests == 0 ? 0 : (double) totalStatements / requests;
+        }
+
+        public synchronized long getMaxStatements() {
+            return maxStatements;
+        }
+
+        public synchronized long getMaxEntityLoads() {
+            return maxEntityLoads;
+        }
+
+        public synchronized long getMaxCollectionInitializations() {
+            return maxCollectionInitializations;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package wt.bookstore.backend.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint at /actuator/querydiagnostics that lists the endpoints with the most SQL statements per request.
+ */
+@Component
+@Endpoint(id = "querydiagnostics")
+public class QueryDiagnosticsEndpoint {
+
+    @Autowired
+    private QueryDiagnostics queryDiagnostics;
+
+    @ReadOperation
+    public List<QueryDiagnostics.EndpointStatistics> worstOffenders(@Nullable Integer limit) {
+        return queryDiagnostics.worstOffenders(limit != null ? limit : 20);
+    }
+}
@@ -0,0 +1,55 @@
+package wt.bookstore.backend.metrics;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the queries of every request with the {@link QueryCounter} and hands the counts to the
+ * {@link QueryDiagnostics}. The counts are also left in the request attribute {@link #COUNTS_ATTRIBUTE}, for tests.
+ *
+ * For asynchronous endpoints only the work done on the request threads is counted, plus the work on other thread pools
+ * that resume the counts with {@link QueryCounter#resume(QueryCounter.QueryCounts)}, like the catalog reads.
+ */
+@Component
+public class QueryDiagnosticsInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String COUNTS_ATTRIBUTE = "wt.bookstore.queryCounts";
+
+    @Autowired
+    private QueryDiagnostics queryDiagnostics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.ASYNC)
+            QueryCounter.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        QueryCounter.QueryCounts counts = QueryCounter.stop();
+        if (counts != null)
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        QueryCounter.QueryCounts counts = QueryCounter.stop();
+        if (counts == null)
+            counts = (QueryCounter.QueryCounts) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts == null)
+            return;
+
+        request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        queryDiagnostics.record(request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI()),
+                counts);
+    }
+}
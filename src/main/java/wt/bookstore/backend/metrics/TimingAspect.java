@@ -0,0 +1,60 @@
+package wt.bookstore.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every call to a controller or mapper method, as the timers {@code bookstore.controller} and
+ * {@code bookstore.mapper}, tagged with the class and method.
+ *
+ * Together with {@code http.server.requests} (the whole request, including serialization) and
+ * {@code spring.data.repository.invocations} (the repository calls) this shows where the time of a request goes. Note
+ * that for asynchronous endpoints only the part on the request thread is timed.
+ */
+@Aspect
+@Component
+public class TimingAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(wt.bookstore.backend.controllers..*) && execution(public * *(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("bookstore.controller", joinPoint);
+    }
+
+    @Around("within(wt.bookstore.backend.mapping..*) && execution(public * *(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("bookstore.mapper", joinPoint);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Timer timer = timers.computeIfAbsent(method, key -> Timer.builder(name)
+                .tag("class", key.getDeclaringClass().getSimpleName())
+                .tag("method", key.getName())
+                .register(meterRegistry));
+
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
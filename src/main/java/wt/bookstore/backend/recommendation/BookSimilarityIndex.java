@@ -0,0 +1,206 @@
+package wt.bookstore.backend.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.repository.BookKeywordJdbcRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds books with similar keywords without comparing a book to the whole catalog.
+ *
+ * Every book gets a MinHash signature of {@value #NUM_HASHES} values computed from its keyword ids: the fraction of
+ * positions in which the signatures of two books agree estimates the Jaccard similarity of their keyword sets. The
+ * signatures are split into {@value #BANDS} bands and books whose signatures are equal in at least one band end up in
+ * the same bucket (locality-sensitive hashing). Only books sharing a bucket with a book are candidates for being
+ * similar to it, and only those are ranked. With 16 bands of four values the threshold, where a book is found about
+ * half of the time, lies at a Jaccard similarity of about 0.5 (0.64 of the books at exactly 0.5 are found). Books with
+ * a similarity of 0.7 or more are found practically always, books below 0.3 rarely, which keeps the buckets small.
+ *
+ * The index is built from book_keywords at startup and has to be updated by every endpoint that changes the keywords
+ * of a book. Updates are serialized; lookups do not take a lock.
+ */
+@Component
+public class BookSimilarityIndex {
+
+    static final int NUM_HASHES = 64;
+
+    static final int BANDS = 16;
+
+    private static final int ROWS = NUM_HASHES / BANDS;
+
+    private static final long[] SEEDS = new long[NUM_HASHES];
+
+    static {
+        long seed = 0x2545F4914F6CDD1DL;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            seed = mix(seed + i);
+            SEEDS[i] = seed;
+        }
+    }
+
+    private final Map<Long, Set<Long>> keywordsByBook = new ConcurrentHashMap<>();
+
+    /**
+     * The books of every keyword, so a deleted keyword is removed without going through all books. Only used by updates.
+     */
+    private final Map<Long, Set<Long>> booksByKeyword = new HashMap<>();
+
+    private final Map<Long, long[]> signatures = new ConcurrentHashMap<>();
+
+    private final List<Map<Long, Set<Long>>> buckets = new ArrayList<>(BANDS);
+
+    @Autowired
+    private BookKeywordJdbcRepository bookKeywordJdbcRepository;
+
+    public BookSimilarityIndex() {
+        for (int band = 0; band < BANDS; band++)
+            buckets.add(new ConcurrentHashMap<>());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Map<Long, Set<Long>> keywords = new HashMap<>();
+        bookKeywordJdbcRepository.forEachBookKeyword(
+                (bookId, keywordId) -> keywords.computeIfAbsent(bookId, id -> new HashSet<>()).add(keywordId));
+        keywords.forEach(this::setKeywords);
+    }
+
+    public synchronized void addKeyword(long bookId, long keywordId) {
+        Set<Long> keywords = new HashSet<>(keywordsByBook.getOrDefault(bookId, Set.of()));
+        if (keywords.add(keywordId))
+            setKeywords(bookId, keywords);
+    }
+
+    public synchronized void removeKeyword(long bookId, long keywordId) {
+        Set<Long> keywords = new HashSet<>(keywordsByBook.getOrDefault(bookId, Set.of()));
+        if (keywords.remove(keywordId))
+            setKeywords(bookId, keywords);
+    }
+
+    /**
+     * Removes a deleted keyword from every book.
+     */
+    public synchronized void removeKeyword(long keywordId) {
+        Set<Long> bookIds = booksByKeyword.get(keywordId);
+        if (bookIds != null) {
+            for (long bookId : new ArrayList<>(bookIds))
+                removeKeyword(bookId, keywordId);
+        }
+    }
+
+    public synchronized void removeBook(long bookId) {
+        setKeywords(bookId, Set.of());
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} books with keywords similar to those of the given book, most similar
+     * first. Books that share no keywords with the given book are never returned.
+     */
+    public List<Long> findSimilar(long bookId, int limit) {
+        long[] signature = signatures.get(bookId);
+        if (signature == null || limit <= 0)
+            return new ArrayList<>();
+
+        Set<Long> candidates = new HashSet<>();
+        for (int band = 0; band < BANDS; band++) {
+            Set<Long> bucket = buckets.get(band).get(bandKey(signature, band));
+            if (bucket != null)
+                candidates.addAll(bucket);
+        }
+        candidates.remove(bookId);
+
+        Map<Long, Integer> agreements = new HashMap<>();
+        for (long candidate : candidates) {
+            long[] candidateSignature = signatures.get(candidate);
+            if (candidateSignature != null)
+                agreements.put(candidate, agreement(signature, candidateSignature));
+        }
+
+        List<Long> similar = new ArrayList<>(agreements.keySet());
+        similar.sort(Comparator.comparing((Long id) -> agreements.get(id)).reversed().thenComparing(id -> id));
+        return similar.size() > limit ? new ArrayList<>(similar.subList(0, limit)) : similar;
+    }
+
+    private synchronized void setKeywords(long bookId, Set<Long> keywords) {
+        long[] oldSignature = signatures.remove(bookId);
+        if (oldSignature != null) {
+            for (int band = 0; band < BANDS; band++) {
+                long key = bandKey(oldSignature, band);
+                Set<Long> bucket = buckets.get(band).get(key);
+                if (bucket != null) {
+                    bucket.remove(bookId);
+                    if (bucket.isEmpty())
+                        buckets.get(band).remove(key);
+                }
+            }
+        }
+
+        Set<Long> oldKeywords = keywordsByBook.getOrDefault(bookId, Set.of());
+        for (long keywordId : oldKeywords) {
+            if (!keywords.contains(keywordId)) {
+                Set<Long> bookIds = booksByKeyword.get(keywordId);
+                bookIds.remove(bookId);
+                if (bookIds.isEmpty())
+                    booksByKeyword.remove(keywordId);
+            }
+        }
+        for (long keywordId : keywords) {
+            if (!oldKeywords.contains(keywordId))
+                booksByKeyword.computeIfAbsent(keywordId, id -> new HashSet<>()).add(bookId);
+        }
+
+        if (keywords.isEmpty()) {
+            keywordsByBook.remove(bookId);
+            return;
+        }
+
+        keywordsByBook.put(bookId, Set.copyOf(keywords));
+        long[] signature = signature(keywords);
+        for (int band = 0; band < BANDS; band++)
+            buckets.get(band).computeIfAbsent(bandKey(signature, band), key -> ConcurrentHashMap.newKeySet())
+                    .add(bookId);
+        signatures.put(bookId, signature);
+    }
+
+    static long[] signature(Set<Long> keywords) {
+        long[] signature = new long[NUM_HASHES];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long keywordId : keywords) {
+            for (int i = 0; i < NUM_HASHES; i++) {
+                long hash = mix(keywordId ^ SEEDS[i]);
+                if (hash < signature[i])
+                    signature[i] = hash;
+            }
+        }
+        return signature;
+    }
+
+    private static int agreement(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i])
+                equal++;
+        }
+        return equal;
+    }
+
+    private static long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++)
+            key = mix(key * 31 + signature[i]);
+        return key;
+    }
+
+    /**
+     * The SplitMix64 finalizer, a cheap hash function with good bit mixing.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
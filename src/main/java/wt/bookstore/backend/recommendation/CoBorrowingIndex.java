@@ -0,0 +1,177 @@
+package wt.bookstore.backend.recommendation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.repository.ILoanRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "People who borrowed this also borrowed": counts for every pair of books how many users borrowed both.
+ *
+ * A background job reads the loans that were created since its previous run and updates a sparse co-occurrence matrix
+ * (book id to book id to number of users), kept in primitive-keyed hash maps. After every run the top
+ * {@code bookstore.recommendation.co-borrowing.neighbours} neighbours of the books that changed are published, and
+ * recommendations are served from those lists only. Deleted loans are not taken out of the counts.
+ *
+ * Loan ids are handed out before the loans are committed, so a loan can become visible after loans with higher ids.
+ * Every run therefore reads the last {@code bookstore.recommendation.co-borrowing.rescan-ids} ids again and counts the
+ * loans among them that it had not seen yet.
+ */
+@Component
+public class CoBorrowingIndex {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Autowired
+    private ILoanRepository loanRepository;
+
+    @Value("${bookstore.recommendation.co-borrowing.neighbours:50}")
+    private int neighbourCount;
+
+    @Value("${bookstore.recommendation.co-borrowing.rescan-ids:1000}")
+    private long rescanIds;
+
+    // Only used by the job
+    private final LongObjectHashMap<LongIntHashMap> coBorrowed = new LongObjectHashMap<>();
+
+    private final LongObjectHashMap<LongIntHashMap> booksByUser = new LongObjectHashMap<>();
+
+    private long lastLoanId;
+
+    // The loans that were counted among the ids that are read again
+    private final Set<Long> recentLoanIds = new HashSet<>();
+
+    // Published for the endpoints
+    private final Map<Long, Neighbours> neighboursByBook = new ConcurrentHashMap<>();
+
+    private final Map<Long, long[]> publishedBooksByUser = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${bookstore.recommendation.co-borrowing.interval-ms:60000}")
+    public synchronized void update() {
+        Set<Long> changedBooks = new HashSet<>();
+        Set<Long> changedUsers = new HashSet<>();
+
+        List<ILoanRepository.LoanBookView> loans;
+        long afterId = Math.max(0, lastLoanId - rescanIds);
+        do {
+            loans = loanRepository.findLoanBooksAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (ILoanRepository.LoanBookView loan : loans) {
+                afterId = loan.getId();
+                if (!recentLoanIds.add(loan.getId()))
+                    continue;
+                add(loan.getUserId(), loan.getBookId(), changedBooks);
+                changedUsers.add(loan.getUserId());
+                lastLoanId = Math.max(lastLoanId, loan.getId());
+            }
+            recentLoanIds.removeIf(id -> id <= lastLoanId - rescanIds);
+        } while (loans.size() == BATCH_SIZE);
+
+        for (long bookId : changedBooks)
+            neighboursByBook.put(bookId, topNeighbours(coBorrowed.get(bookId)));
+        for (long userId : changedUsers)
+            publishedBooksByUser.put(userId, booksByUser.get(userId).keys());
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} books that were borrowed most often by users who also borrowed the
+     * given book.
+     */
+    public List<Long> recommendForBook(long bookId, int limit) {
+        Neighbours neighbours = neighboursByBook.get(bookId);
+        List<Long> result = new ArrayList<>();
+        if (neighbours == null)
+            return result;
+        for (int i = 0; i < neighbours.bookIds.length && i < limit; i++)
+            result.add(neighbours.bookIds[i]);
+        return result;
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} books the given user has not borrowed yet, ranked by how often they were
+     * borrowed together with the books the user did borrow.
+     */
+    public List<Long> recommendForUser(long userId, int limit) {
+        long[] borrowed = publishedBooksByUser.get(userId);
+        if (borrowed == null || limit <= 0)
+            return new ArrayList<>();
+
+        Set<Long> borrowedSet = new HashSet<>();
+        for (long bookId : borrowed)
+            borrowedSet.add(bookId);
+
+        Map<Long, Long> scores = new HashMap<>();
+        for (long bookId : borrowed) {
+            Neighbours neighbours = neighboursByBook.get(bookId);
+            if (neighbours == null)
+                continue;
+            for (int i = 0; i < neighbours.bookIds.length; i++) {
+                if (!borrowedSet.contains(neighbours.bookIds[i]))
+                    scores.merge(neighbours.bookIds[i], (long) neighbours.counts[i], Long::sum);
+            }
+        }
+
+        List<Long> result = new ArrayList<>(scores.keySet());
+        result.sort(Comparator.comparing((Long id) -> scores.get(id)).reversed().thenComparing(id -> id));
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private void add(long userId, long bookId, Set<Long> changedBooks) {
+        LongIntHashMap borrowed = booksByUser.computeIfAbsent(userId, id -> new LongIntHashMap());
+        // Borrowing the same book twice does not count twice
+        if (borrowed.addTo(bookId, 1) > 1)
+            return;
+
+        LongIntHashMap row = coBorrowed.computeIfAbsent(bookId, id -> new LongIntHashMap());
+        borrowed.forEach((otherBookId, count) -> {
+            if (otherBookId == bookId)
+                return;
+            row.addTo(otherBookId, 1);
+            coBorrowed.computeIfAbsent(otherBookId, id -> new LongIntHashMap()).addTo(bookId, 1);
+            changedBooks.add(otherBookId);
+        });
+        changedBooks.add(bookId);
+    }
+
+    private Neighbours topNeighbours(LongIntHashMap row) {
+        // Min-heap on count of the best neighbours so far, as {book id, count}
+        PriorityQueue<long[]> top = new PriorityQueue<>(neighbourCount + 1, Comparator.comparingLong(entry -> entry[1]));
+        row.forEach((bookId, count) -> {
+            if (top.size() < neighbourCount) {
+                top.add(new long[]{bookId, count});
+            } else if (count > top.peek()[1]) {
+                top.poll();
+                top.add(new long[]{bookId, count});
+            }
+        });
+
+        int size = top.size();
+        long[] bookIds = new long[size];
+        int[] counts = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            long[] entry = top.poll();
+            bookIds[i] = entry[0];
+            counts[i] = (int) entry[1];
+        }
+        return new Neighbours(bookIds, counts);
+    }
+
+    /**
+     * The most co-borrowed books of a book, most co-borrowed first.
+     */
+    private static final class Neighbours {
+
+        private final long[] bookIds;
+
+        private final int[] counts;
+
+        private Neighbours(long[] bookIds, int[] counts) {
+            this.bookIds = bookIds;
+            this.counts = counts;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package wt.bookstore.backend.recommendation;
+
+/**
+ * Open addressing hash map from long to int, without boxing of keys or values. Used for the (sparse) counters of the
+ * co-borrowing matrix. Not thread-safe.
+ */
+class LongIntHashMap {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private int size;
+
+    private boolean hasZeroKey;
+
+    private int zeroValue;
+
+    LongIntHashMap() {
+        this(8);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    int get(long key) {
+        if (key == EMPTY)
+            return hasZeroKey ? zeroValue : 0;
+        int slot = find(keys, key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    boolean containsKey(long key) {
+        if (key == EMPTY)
+            return hasZeroKey;
+        return keys[find(keys, key)] == key;
+    }
+
+    /**
+     * Adds delta to the value of the key, where a missing key counts as 0.
+     *
+     * @return the new value
+     */
+    int addTo(long key, int delta) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+
+        int slot = find(keys, key);
+        if (keys[slot] == key)
+            return values[slot] += delta;
+
+        keys[slot] = key;
+        values[slot] = delta;
+        if (++size * 2 > keys.length)
+            resize();
+        return delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Consumer consumer) {
+        if (hasZeroKey)
+            consumer.accept(EMPTY, zeroValue);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY)
+                consumer.accept(keys[i], values[i]);
+        }
+    }
+
+    long[] keys() {
+        long[] result = new long[size];
+        int index = 0;
+        if (hasZeroKey)
+            result[index++] = EMPTY;
+        for (long key : keys) {
+            if (key != EMPTY)
+                result[index++] = key;
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot that holds the key, or the empty slot where it should be inserted.
+     */
+    private static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    interface Consumer {
+        void accept(long key, int value);
+    }
+}
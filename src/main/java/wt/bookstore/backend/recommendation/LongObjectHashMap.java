@@ -0,0 +1,82 @@
+package wt.bookstore.backend.recommendation;
+
+import java.util.function.LongFunction;
+
+/**
+ * Open addressing hash map from long to an object, without boxing of the keys. Not thread-safe.
+ */
+class LongObjectHashMap<V> {
+
+    private static final long EMPTY = 0;
+
+    private long[] keys = new long[16];
+
+    private Object[] values = new Object[16];
+
+    private int size;
+
+    private V zeroValue;
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        if (key == EMPTY)
+            return zeroValue;
+        int slot = find(keys, key);
+        return keys[slot] == key ? (V) values[slot] : null;
+    }
+
+    V computeIfAbsent(long key, LongFunction<V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    void put(long key, V value) {
+        if (key == EMPTY) {
+            if (zeroValue == null)
+                size++;
+            zeroValue = value;
+            return;
+        }
+
+        int slot = find(keys, key);
+        if (keys[slot] != key) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                resize();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int find(long[] keys, long key) {
+        int mask = keys.length - 1;
+        int slot = LongIntHashMap.hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+}
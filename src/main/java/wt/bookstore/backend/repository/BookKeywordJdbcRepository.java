@@ -0,0 +1,139 @@
+package wt.bookstore.backend.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import wt.bookstore.backend.config.TransactionCallbacks;
+import wt.bookstore.backend.domains.Book;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Set based JDBC access to the keyword and book_keywords tables, for operations on many books and keywords at once
+ * that would take several statements per row through JPA. Every method is a single statement, or a single batch.
+ *
+ * These statements bypass Hibernate, so the methods that change book_keywords evict the cached {@link Book#getKeywords()}
+ * collections themselves.
+ */
+@Repository
+public class BookKeywordJdbcRepository {
+
+    private static final int INSERT_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    public Set<Long> findExistingBookIds(Collection<Long> bookIds) {
+        if (bookIds.isEmpty())
+            return new HashSet<>();
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+                "select id from book where id in (:ids)", Map.of("ids", bookIds), Long.class));
+    }
+
+    /**
+     * @return the ids of the keywords with the given names, by name
+     */
+    public Map<String, Long> findKeywordIds(Collection<String> names) {
+        return findKeywordIds(names, "select id, name from keyword where name in (:names)");
+    }
+
+    /**
+     * Like {@link #findKeywordIds(Collection)}, but reads the latest committed rows and locks them until the end of the
+     * transaction, so it also finds the keywords that another transaction inserted after this one started.
+     */
+    public Map<String, Long> findKeywordIdsForUpdate(Collection<String> names) {
+        return findKeywordIds(names, "select id, name from keyword where name in (:names) for update");
+    }
+
+    private Map<String, Long> findKeywordIds(Collection<String> names, String sql) {
+        Map<String, Long> keywordIds = new HashMap<>();
+        if (names.isEmpty())
+            return keywordIds;
+        namedParameterJdbcTemplate.query(sql, Map.of("names", names),
+                rs -> {
+                    keywordIds.put(rs.getString("name"), rs.getLong("id"));
+                });
+        return keywordIds;
+    }
+
+    /**
+     * Inserts the keywords with the given names that do not exist yet. Names that exist, also when another transaction
+     * inserted them in the meantime, are skipped instead of failing on the unique name index.
+     * @return the number of keywords that were inserted
+     */
+    public int insertMissingKeywords(Collection<String> names) {
+        List<String> remaining = new ArrayList<>(names);
+        int inserted = 0;
+        // One statement per chunk, so the number of affected rows is exact (batches may be rewritten by the driver)
+        for (int start = 0; start < remaining.size(); start += INSERT_CHUNK_SIZE) {
+            List<String> chunk = remaining.subList(start, Math.min(remaining.size(), start + INSERT_CHUNK_SIZE));
+            inserted += jdbcTemplate.update("insert ignore into keyword (name) values "
+                    + String.join(", ", Collections.nCopies(chunk.size(), "(?)")), chunk.toArray());
+        }
+        return inserted;
+    }
+
+    /**
+     * @return the ids of the keywords of the given books, by book id
+     */
+    public Map<Long, Set<Long>> findKeywordIdsByBook(Collection<Long> bookIds) {
+        Map<Long, Set<Long>> keywordIds = new HashMap<>();
+        if (bookIds.isEmpty())
+            return keywordIds;
+        namedParameterJdbcTemplate.query("select book_id, keyword_id from book_keywords where book_id in (:ids)",
+                Map.of("ids", bookIds),
+                rs -> {
+                    keywordIds.computeIfAbsent(rs.getLong("book_id"), id -> new HashSet<>())
+                            .add(rs.getLong("keyword_id"));
+                });
+        return keywordIds;
+    }
+
+    /**
+     * Streams every (book id, keyword id) pair in book_keywords to the given consumer.
+     */
+    public void forEachBookKeyword(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query("select book_id, keyword_id from book_keywords",
+                rs -> {
+                    consumer.accept(rs.getLong("book_id"), rs.getLong("keyword_id"));
+                });
+    }
+
+    /**
+     * Inserts (book id, keyword id) pairs into book_keywords, and evicts the cached keywords of those books.
+     */
+    public void insertBookKeywords(List<long[]> pairs) {
+        if (pairs.isEmpty())
+            return;
+        List<Object[]> rows = new ArrayList<>(pairs.size());
+        Set<Long> bookIds = new HashSet<>();
+        for (long[] pair : pairs) {
+            rows.add(new Object[]{pair[0], pair[1]});
+            bookIds.add(pair[0]);
+        }
+        jdbcTemplate.batchUpdate("insert into book_keywords (book_id, keyword_id) values (?, ?)", rows);
+        evictBookKeywords(bookIds);
+    }
+
+    /**
+     * Evicts the cached keyword collections of the given books. Inside a transaction this happens once it has ended,
+     * otherwise another request could cache the old collection again before the new rows are visible.
+     */
+    private void evictBookKeywords(Set<Long> bookIds) {
+        TransactionCallbacks.afterCompletion(() -> {
+            Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+            for (Long bookId : bookIds)
+                cache.evictCollectionData(Book.KEYWORDS_ROLE, bookId);
+        });
+    }
+}
@@ -1,10 +1,26 @@
 package wt.bookstore.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import wt.bookstore.backend.domains.Keyword;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface IKeywordRepository extends JpaRepository<Keyword, Long>{
     Optional<Keyword> findByName(String name);
+
+    @Query("select k.id as id, k.name as name, count(b) as count from Keyword k left join k.books b group by k.id, k.name")
+    List<KeywordCountView> countBooksPerKeyword();
+
+    /**
+     * Projection of a keyword on its id, name and number of books, used to fill the {@link KeywordPopularity}.
+     */
+    interface KeywordCountView {
+        long getId();
+
+        String getName();
+
+        long getCount();
+    }
 }
\ No newline at end of file
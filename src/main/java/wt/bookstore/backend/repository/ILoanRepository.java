@@ -2,10 +2,27 @@ package wt.bookstore.backend.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import wt.bookstore.backend.domains.Loan;
 
 public interface ILoanRepository extends JpaRepository<Loan, Long>{
 	List<Loan> findByUserId(long userId);
+
+	@Query("select l.id as id, l.user.id as userId, l.copy.book.id as bookId from Loan l where l.id > :afterId order by l.id")
+	List<LoanBookView> findLoanBooksAfter(long afterId, Pageable pageable);
+
+	/**
+	 * Projection of a loan on the user and the book that was borrowed, used by the
+	 * {@link wt.bookstore.backend.recommendation.CoBorrowingIndex}.
+	 */
+	interface LoanBookView {
+		long getId();
+
+		long getUserId();
+
+		long getBookId();
+	}
 }
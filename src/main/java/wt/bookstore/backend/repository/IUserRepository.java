@@ -1,13 +1,40 @@
 package wt.bookstore.backend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import wt.bookstore.backend.domains.User;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IUserRepository extends JpaRepository<User, Long>{
 
-    Optional<User> findByEmailAddressAndPassword(String emailAddress, String password);
+    Optional<User> findByEmailAddress(String emailAddress);
+
+    Optional<User> findByToken(String token);
+
+    /**
+     * Clears the given tokens, so the sessions that used them can not be restored from the database.
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.token = null, u.tokenExpiresAt = null where u.token in :tokens")
+    void revokeTokens(Collection<String> tokens);
+
+    @Query("select u.id as id, u.emailAddress as emailAddress from User u")
+    List<EmailAddressView> findAllEmailAddresses();
+
+    /**
+     * Projection of a user on its id and email address, used to fill the {@link UserEmailIndex}.
+     */
+    interface EmailAddressView {
+        long getId();
+
+        String getEmailAddress();
+    }
 
 }
@@ -0,0 +1,102 @@
+package wt.bookstore.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory count of the number of books tagged with every keyword. The counts are computed with one query at startup
+ * and after that kept up to date by the endpoints that tag and untag books, so the tag cloud never reads the
+ * book_keywords table.
+ */
+@Component
+public class KeywordPopularity {
+
+    private final Map<Long, KeywordCount> counts = new ConcurrentHashMap<>();
+
+    @Autowired
+    private IKeywordRepository keywordRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (IKeywordRepository.KeywordCountView keyword : keywordRepository.countBooksPerKeyword())
+            counts.put(keyword.getId(), new KeywordCount(keyword.getId(), keyword.getName(), keyword.getCount()));
+    }
+
+    public void tagged(long keywordId, String name) {
+        counts.computeIfAbsent(keywordId, id -> new KeywordCount(id, name, 0)).count.incrementAndGet();
+    }
+
+    public void untagged(long keywordId) {
+        KeywordCount keywordCount = counts.get(keywordId);
+        if (keywordCount != null)
+            keywordCount.count.updateAndGet(count -> Math.max(0, count - 1));
+    }
+
+    public void removed(long keywordId) {
+        counts.remove(keywordId);
+    }
+
+    /**
+     * Returns the {@code limit} keywords that are used the most, most used first.
+     */
+    public List<KeywordCount> top(int limit) {
+        if (limit <= 0)
+            return new ArrayList<>();
+
+        // Min-heap of the best keywords so far, so every keyword is compared against the least used of the top
+        Comparator<KeywordCount> byCount = Comparator.comparingLong(KeywordCount::getCount);
+        PriorityQueue<KeywordCount> top = new PriorityQueue<>(limit + 1, byCount);
+        for (KeywordCount keywordCount : counts.values()) {
+            if (top.size() < limit) {
+                top.add(keywordCount.snapshot());
+            } else if (keywordCount.getCount() > top.peek().getCount()) {
+                top.poll();
+                top.add(keywordCount.snapshot());
+            }
+        }
+
+        List<KeywordCount> result = new ArrayList<>(top);
+        result.sort(byCount.reversed());
+        return result;
+    }
+
+    /**
+     * The number of books tagged with a keyword.
+     */
+    public static class KeywordCount {
+
+        private final long id;
+
+        private final String name;
+
+        private final AtomicLong count;
+
+        KeywordCount(long id, String name, long count) {
+            this.id = id;
+            this.name = name;
+            this.count = new AtomicLong(count);
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        private KeywordCount snapshot() {
+            return new KeywordCount(id, name, count.get());
+        }
+    }
+}
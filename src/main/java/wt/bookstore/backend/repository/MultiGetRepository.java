@@ -0,0 +1,37 @@
+package wt.bookstore.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Loads entities of any type by a list of ids at once, for the multi-get endpoints.
+ */
+@Repository
+public class MultiGetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Loads the entities with the given ids through Hibernate's multi-load. Entities that are already in the
+     * persistence context or in the second-level cache are taken from there; the others are loaded with one IN query
+     * (split in batches for very long id lists).
+     *
+     * @return the entities in the order of the ids, with null for ids that do not exist
+     */
+    @Transactional(readOnly = true)
+    public <T> List<T> findAllByIdInOrder(Class<T> entityClass, List<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(entityClass)
+                .enableOrderedReturn(true)
+                .enableSessionCheck(true)
+                .with(CacheMode.NORMAL)
+                .multiLoad(ids);
+    }
+}
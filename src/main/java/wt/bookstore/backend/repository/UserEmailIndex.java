@@ -0,0 +1,86 @@
+package wt.bookstore.backend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.domains.User;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index from (normalized) email address to user id, so that looking up a user by email address at login and
+ * when checking for duplicates is usually a lookup by id, which the second-level cache of the users answers. The index
+ * is filled at startup and kept up to date by the endpoints that create, change or delete a user.
+ *
+ * The index is only a hint: users can also be added, changed or removed by another instance or directly in the
+ * database. An email address that is not in the index is looked up in the database (through its unique index), and an
+ * id that no longer belongs to the email address is looked up again the same way.
+ */
+@Component
+public class UserEmailIndex {
+
+    private final Map<String, Long> idsByEmailAddress = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> emailAddressesById = new ConcurrentHashMap<>();
+
+    @Autowired
+    private IUserRepository userRepository;
+
+    /**
+     * Email addresses are compared case-insensitively and without surrounding whitespace. They are stored in this
+     * normalized form as well.
+     */
+    public static String normalize(String emailAddress) {
+        return emailAddress == null ? null : emailAddress.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (IUserRepository.EmailAddressView user : userRepository.findAllEmailAddresses())
+            put(user.getEmailAddress(), user.getId());
+    }
+
+    public Optional<User> findUser(String emailAddress) {
+        String email = normalize(emailAddress);
+        if (email == null)
+            return Optional.empty();
+
+        Long id = idsByEmailAddress.get(email);
+        if (id != null) {
+            Optional<User> user = userRepository.findById(id);
+            if (user.isPresent() && email.equals(user.get().getEmailAddress()))
+                return user;
+            // Changed or removed without this index knowing
+            idsByEmailAddress.remove(email, id);
+        }
+
+        Optional<User> user = userRepository.findByEmailAddress(email);
+        if (user.isPresent())
+            put(email, user.get().getId());
+        return user;
+    }
+
+    public boolean isRegistered(String emailAddress) {
+        return findUser(emailAddress).isPresent();
+    }
+
+    public void put(String emailAddress, long id) {
+        String email = normalize(emailAddress);
+        if (email == null)
+            return;
+        String previous = emailAddressesById.put(id, email);
+        if (previous != null && !previous.equals(email))
+            idsByEmailAddress.remove(previous, id);
+        idsByEmailAddress.put(email, id);
+    }
+
+    public void remove(long id) {
+        String email = emailAddressesById.remove(id);
+        if (email != null)
+            idsByEmailAddress.remove(email, id);
+    }
+}
@@ -0,0 +1,43 @@
+package wt.bookstore.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Authenticates requests that carry an {@code Authorization: Bearer <token>} header and makes the resulting
+ * {@link UserSession} available as the request attribute {@link #SESSION_ATTRIBUTE}. Requests without a (valid) token
+ * are let through, it is up to the endpoints to decide whether they need a session.
+ */
+@Component
+public class AuthenticationInterceptor implements HandlerInterceptor {
+
+    public static final String SESSION_ATTRIBUTE = "wt.bookstore.session";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private TokenAuthenticator tokenAuthenticator;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String token = resolveToken(request);
+        if (token != null)
+            tokenAuthenticator.authenticate(token)
+                    .ifPresent(session -> request.setAttribute(SESSION_ATTRIBUTE, session));
+        return true;
+    }
+
+    /**
+     * Returns the bearer token of the request, or null if the request has none.
+     */
+    public static String resolveToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX))
+            return null;
+        return header.substring(BEARER_PREFIX.length()).trim();
+    }
+}
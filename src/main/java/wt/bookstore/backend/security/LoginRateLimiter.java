@@ -0,0 +1,92 @@
+package wt.bookstore.backend.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Throttles login attempts with token buckets, one per email address and one per client address. The per-client
+ * bucket stops a single client from trying many accounts, the per-email bucket stops many clients from trying a
+ * single account. Buckets that have not been used for a while are full again and are evicted.
+ *
+ * Rejected attempts are counted in the {@code bookstore.login.rate.limited} metric, tagged with the bucket that
+ * rejected them.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Map<String, TokenBucket> emailBuckets = new ConcurrentHashMap<>();
+
+    private final Map<String, TokenBucket> addressBuckets = new ConcurrentHashMap<>();
+
+    @Value("${bookstore.login.rate-limit.email.capacity:5}")
+    private long emailCapacity;
+
+    @Value("${bookstore.login.rate-limit.email.refill-per-minute:5}")
+    private long emailRefillPerMinute;
+
+    @Value("${bookstore.login.rate-limit.address.capacity:20}")
+    private long addressCapacity;
+
+    @Value("${bookstore.login.rate-limit.address.refill-per-minute:20}")
+    private long addressRefillPerMinute;
+
+    @Value("${bookstore.login.rate-limit.idle-eviction-ms:600000}")
+    private long idleEvictionMillis;
+
+    private final Counter emailRejections;
+
+    private final Counter addressRejections;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry) {
+        this.emailRejections = Counter.builder("bookstore.login.rate.limited")
+                .description("Login attempts rejected by the rate limiter")
+                .tag("bucket", "email")
+                .register(meterRegistry);
+        this.addressRejections = Counter.builder("bookstore.login.rate.limited")
+                .description("Login attempts rejected by the rate limiter")
+                .tag("bucket", "address")
+                .register(meterRegistry);
+        meterRegistry.gaugeMapSize("bookstore.login.rate.buckets", Tags.of("bucket", "email"), emailBuckets);
+        meterRegistry.gaugeMapSize("bookstore.login.rate.buckets", Tags.of("bucket", "address"), addressBuckets);
+    }
+
+    /**
+     * Takes a token for a login attempt with the given email address from the given client address.
+     *
+     * @return true if the attempt is allowed, false if it should be rejected
+     */
+    public boolean tryAcquire(String emailAddress, String clientAddress) {
+        long now = System.currentTimeMillis();
+
+        TokenBucket addressBucket = addressBuckets.computeIfAbsent(String.valueOf(clientAddress),
+                key -> new TokenBucket(addressCapacity, addressRefillPerMinute, now));
+        if (!addressBucket.tryAcquire(now)) {
+            addressRejections.increment();
+            return false;
+        }
+
+        String email = emailAddress == null ? "" : emailAddress.trim().toLowerCase(Locale.ROOT);
+        TokenBucket emailBucket = emailBuckets.computeIfAbsent(email,
+                key -> new TokenBucket(emailCapacity, emailRefillPerMinute, now));
+        if (!emailBucket.tryAcquire(now)) {
+            emailRejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${bookstore.login.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.currentTimeMillis() - idleEvictionMillis;
+        emailBuckets.values().removeIf(bucket -> bucket.getLastAccess() < cutoff);
+        addressBuckets.values().removeIf(bucket -> bucket.getLastAccess() < cutoff);
+    }
+}
@@ -0,0 +1,96 @@
+package wt.bookstore.backend.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Hashes and verifies user passwords with bcrypt. The cost factor is configurable with
+ * {@code bookstore.password.cost}; every hash carries its own salt and cost, so the cost can be raised without
+ * invalidating existing passwords.
+ *
+ * Passwords stored before hashing was introduced are still in plaintext. These are accepted once and should be
+ * replaced by a hash, see {@link #needsRehash(String)}.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String BCRYPT_PREFIX = "$2";
+
+    private final BCryptPasswordEncoder encoder;
+
+    /**
+     * Hash of a random password, to verify against when there is no user
+     */
+    private final String unknownUserHash;
+
+    @Autowired
+    @Qualifier("passwordHashExecutor")
+    private ThreadPoolTaskExecutor passwordHashExecutor;
+
+    public PasswordHasher(@Value("${bookstore.password.cost:10}") int cost) {
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.unknownUserHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Verifies a password against the stored hash on the password hash thread pool.
+     *
+     * @return future that completes with whether the password matches, or completes exceptionally with a 503
+     * {@link ResponseStatusException} if the thread pool is saturated
+     */
+    public CompletableFuture<Boolean> verify(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null)
+            return CompletableFuture.completedFuture(false);
+
+        try {
+            return CompletableFuture.supplyAsync(() -> matches(rawPassword, storedPassword), passwordHashExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many concurrent logins"));
+        }
+    }
+
+    /**
+     * Verifies the password against a hash that nothing matches, so a login with an unknown email address takes as long
+     * as one with a wrong password.
+     *
+     * @return future that completes with false, or exceptionally like {@link #verify(String, String)}
+     */
+    public CompletableFuture<Boolean> verifyUnknownUser(String rawPassword) {
+        return verify(rawPassword == null ? "" : rawPassword, unknownUserHash).thenApply(matches -> false);
+    }
+
+    /**
+     * Returns true if the stored password is plaintext or was hashed with a lower cost than the current one.
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHash(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    private boolean matches(String rawPassword, String storedPassword) {
+        if (isHash(storedPassword))
+            return encoder.matches(rawPassword, storedPassword);
+        return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private boolean isHash(String storedPassword) {
+        return storedPassword.startsWith(BCRYPT_PREFIX);
+    }
+}
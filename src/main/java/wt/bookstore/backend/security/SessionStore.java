@@ -0,0 +1,127 @@
+package wt.bookstore.backend.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.repository.IUserRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory store of the sessions handed out by the login endpoint, keyed by token. Sessions expire a fixed time
+ * after login (ttl) or after a period without requests (idle timeout), whichever comes first. The end of the ttl is
+ * stored with the token, and the token of an expired session is cleared in the database, so an expired session can not
+ * be restored from the database either.
+ *
+ * The store is backed by a {@link ConcurrentHashMap}, so lookups never take a global lock. Memory is bounded by
+ * {@code bookstore.session.max-sessions}: when the store is full, expired sessions are evicted first and after that the
+ * least recently used session.
+ */
+@Component
+public class SessionStore {
+
+    private final Map<String, UserSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${bookstore.session.ttl-seconds:28800}")
+    private long ttlSeconds;
+
+    @Value("${bookstore.session.idle-timeout-seconds:1800}")
+    private long idleTimeoutSeconds;
+
+    @Value("${bookstore.session.max-sessions:10000}")
+    private int maxSessions;
+
+    @Autowired
+    private IUserRepository userRepository;
+
+    /**
+     * Returns when a session that starts now ends at the latest, to store with its token.
+     */
+    public Instant newSessionExpiry() {
+        return Instant.now().plusSeconds(ttlSeconds);
+    }
+
+    /**
+     * Stores a session for the given user under the given token. The session started at the login that stored the
+     * expiry of the token, see {@link #newSessionExpiry()}.
+     */
+    public void put(String token, User user) {
+        long now = System.currentTimeMillis();
+        long createdAt = user.getTokenExpiresAt() != null
+                ? Math.min(now, user.getTokenExpiresAt().toEpochMilli() - ttlSeconds * 1000)
+                : now;
+        if (sessions.size() >= maxSessions) {
+            evictExpired();
+            if (sessions.size() >= maxSessions)
+                evictLeastRecentlyUsed();
+        }
+        sessions.put(token, new UserSession(user.getId(), user.isAdmin(), createdAt, now));
+    }
+
+    /**
+     * Returns the session belonging to the token, if it exists and has not expired. A hit counts as activity for the
+     * idle timeout.
+     */
+    public Optional<UserSession> get(String token) {
+        UserSession session = sessions.get(token);
+        if (session == null)
+            return Optional.empty();
+
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now)) {
+            if (sessions.remove(token, session))
+                userRepository.revokeTokens(List.of(token));
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session);
+    }
+
+    public void remove(String token) {
+        sessions.remove(token);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /**
+     * Removes all expired sessions. Runs periodically so tokens that are never used again do not stay in memory.
+     */
+    @Scheduled(fixedDelayString = "${bookstore.session.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        List<String> expiredTokens = new ArrayList<>();
+        sessions.forEach((token, session) -> {
+            if (isExpired(session, now) && sessions.remove(token, session))
+                expiredTokens.add(token);
+        });
+        if (!expiredTokens.isEmpty())
+            userRepository.revokeTokens(expiredTokens);
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String oldestToken = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, UserSession> entry : sessions.entrySet()) {
+            if (entry.getValue().getLastAccess() < oldestAccess) {
+                oldestAccess = entry.getValue().getLastAccess();
+                oldestToken = entry.getKey();
+            }
+        }
+        if (oldestToken != null)
+            sessions.remove(oldestToken);
+    }
+
+    private boolean isExpired(UserSession session, long now) {
+        return now - session.getCreatedAt() > ttlSeconds * 1000
+                || now - session.getLastAccess() > idleTimeoutSeconds * 1000;
+    }
+}
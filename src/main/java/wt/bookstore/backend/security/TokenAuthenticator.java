@@ -0,0 +1,43 @@
+package wt.bookstore.backend.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.repository.IUserRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Resolves the token sent with a request to a {@link UserSession}. The {@link SessionStore} is checked first, the
+ * database is only queried for tokens that are not in the store (for example after a restart of the backend), and a
+ * session is only restored from there until the expiry stored with its token.
+ */
+@Component
+public class TokenAuthenticator {
+
+    @Autowired
+    private SessionStore sessionStore;
+
+    @Autowired
+    private IUserRepository userRepository;
+
+    public Optional<UserSession> authenticate(String token) {
+        if (token == null || token.isEmpty())
+            return Optional.empty();
+
+        Optional<UserSession> session = sessionStore.get(token);
+        if (session.isPresent())
+            return session;
+
+        Optional<User> userOptional = userRepository.findByToken(token);
+        if (userOptional.isEmpty())
+            return Optional.empty();
+        Instant expiresAt = userOptional.get().getTokenExpiresAt();
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now()))
+            return Optional.empty();
+
+        sessionStore.put(token, userOptional.get());
+        return sessionStore.get(token);
+    }
+}
@@ -0,0 +1,47 @@
+package wt.bookstore.backend.security;
+
+/**
+ * A token bucket that holds at most {@code capacity} tokens and is refilled at a fixed rate. Every bucket has its own
+ * lock, so buckets of different keys never contend with each other.
+ */
+class TokenBucket {
+
+    private final double capacity;
+
+    private final double tokensPerMilli;
+
+    private double tokens;
+
+    private long lastRefill;
+
+    private volatile long lastAccess;
+
+    TokenBucket(long capacity, long refillPerMinute, long now) {
+        this.capacity = capacity;
+        this.tokensPerMilli = refillPerMinute / 60_000.0;
+        this.tokens = capacity;
+        this.lastRefill = now;
+        this.lastAccess = now;
+    }
+
+    /**
+     * Takes one token from the bucket if there is one.
+     *
+     * @return true if a token was taken, false if the bucket is empty
+     */
+    synchronized boolean tryAcquire(long now) {
+        lastAccess = now;
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerMilli);
+            lastRefill = now;
+        }
+        if (tokens < 1)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    long getLastAccess() {
+        return lastAccess;
+    }
+}
@@ -0,0 +1,69 @@
+package wt.bookstore.backend.security;
+
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+
+/**
+ * Generates the random session tokens handed out at login, consisting of the characters 0-9, A-Z and a-z.
+ *
+ * Every thread has its own DRBG {@link SecureRandom}, seeded by the operating system, and draws random bytes from it
+ * in bulk. A DRBG instance is used because the default (NativePRNG) instances all share one lock. Each byte is turned
+ * into a character by its lowest six bits; the two values that fall outside the alphabet are skipped, so every
+ * character is equally likely.
+ */
+@Component
+public class TokenGenerator {
+
+    private static final char[] ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private static final int ENTROPY_BUFFER_SIZE = 512;
+
+    private final ThreadLocal<Source> sources = ThreadLocal.withInitial(Source::new);
+
+    public String generate(int length) {
+        Source source = sources.get();
+        char[] chars = source.chars(length);
+        for (int i = 0; i < length; ) {
+            int value = source.nextByte() & 0x3F;
+            if (value < ALPHABET.length)
+                chars[i++] = ALPHABET[value];
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static final class Source {
+
+        private final SecureRandom random = newSecureRandom();
+
+        private final byte[] entropy = new byte[ENTROPY_BUFFER_SIZE];
+
+        private int position = ENTROPY_BUFFER_SIZE;
+
+        private char[] chars = new char[64];
+
+        int nextByte() {
+            if (position == entropy.length) {
+                random.nextBytes(entropy);
+                position = 0;
+            }
+            return entropy[position++];
+        }
+
+        private static SecureRandom newSecureRandom() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+
+        char[] chars(int length) {
+            if (chars.length < length)
+                chars = new char[length];
+            return chars;
+        }
+    }
+}
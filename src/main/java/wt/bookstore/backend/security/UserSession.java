@@ -0,0 +1,50 @@
+package wt.bookstore.backend.security;
+
+/**
+ * A logged in user as kept in the {@link SessionStore}. Only the fields needed to authenticate a request are kept,
+ * so a session does not hold on to a {@link wt.bookstore.backend.domains.User} entity.
+ */
+public class UserSession {
+
+    private final long userId;
+
+    private final boolean admin;
+
+    private final long createdAt;
+
+    private volatile long lastAccess;
+
+    public UserSession(long userId, boolean admin, long now) {
+        this(userId, admin, now, now);
+    }
+
+    /**
+     * A session that started earlier than now, like one that is restored from the database.
+     */
+    public UserSession(long userId, boolean admin, long createdAt, long now) {
+        this.userId = userId;
+        this.admin = admin;
+        this.createdAt = createdAt;
+        this.lastAccess = now;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getLastAccess() {
+        return lastAccess;
+    }
+
+    void touch(long now) {
+        lastAccess = now;
+    }
+}
@@ -0,0 +1,67 @@
+-- Tables as Hibernate created them from the entities with ddl-auto=update. Databases that were created that way are
+-- baselined at this version (spring.flyway.baseline-on-migrate), so this script only runs on new databases.
+
+create table book (
+    id bigint not null auto_increment,
+    author varchar(100) not null,
+    isbn bigint not null,
+    title varchar(100) not null,
+    primary key (id)
+);
+
+create table keyword (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    primary key (id)
+);
+
+create unique index idx_keyword_name on keyword (name);
+
+create table book_keywords (
+    book_id bigint not null,
+    keyword_id bigint not null,
+    constraint fk_book_keywords_book foreign key (book_id) references book (id),
+    constraint fk_book_keywords_keyword foreign key (keyword_id) references keyword (id)
+);
+
+create table copy (
+    id bigint not null auto_increment,
+    available bit not null,
+    book_id bigint not null,
+    primary key (id),
+    constraint fk_copy_book foreign key (book_id) references book (id)
+);
+
+create table user (
+    id bigint not null auto_increment,
+    admin bit not null,
+    email_address varchar(128) not null,
+    first_name varchar(64) not null,
+    last_name varchar(64) not null,
+    password varchar(128) not null,
+    token varchar(255),
+    primary key (id)
+);
+
+create unique index idx_user_email_address on user (email_address);
+
+create table loan (
+    id bigint not null auto_increment,
+    end_date date,
+    start_date date not null,
+    copy_id bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_loan_copy foreign key (copy_id) references copy (id),
+    constraint fk_loan_user foreign key (user_id) references user (id)
+);
+
+create table reservation (
+    id bigint not null auto_increment,
+    date date not null,
+    book_id bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_reservation_book foreign key (book_id) references book (id),
+    constraint fk_reservation_user foreign key (user_id) references user (id)
+);
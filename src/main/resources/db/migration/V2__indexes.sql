@@ -0,0 +1,23 @@
+-- Indexes for the queries of the repositories. Each one starts with the column that is filtered on, so it also backs
+-- the foreign key on that column, and continues with the column that is read or sorted on next, so those queries can
+-- be answered from the index. SchemaIndexCheck fails startup when one of them is missing.
+
+-- findByBookId, and counting the available copies of a book
+create index idx_copy_book_available on copy (book_id, available);
+
+-- findByUserId, the loans of a user by date
+create index idx_loan_user_start_date on loan (user_id, start_date);
+-- Copy.loans, and the open loans (without an end date) of a copy
+create index idx_loan_copy_end_date on loan (copy_id, end_date);
+
+-- findByUserId and findByBookId, the reservations of a user or a book by date
+create index idx_reservation_user_date on reservation (user_id, date);
+create index idx_reservation_book_date on reservation (book_id, date);
+
+-- The keywords of a book, and the books of a keyword (keyword counts, tagging), both only from the index
+create index idx_book_keywords_book_keyword on book_keywords (book_id, keyword_id);
+create index idx_book_keywords_keyword_book on book_keywords (keyword_id, book_id);
+
+-- Looking up a book by isbn, and a session by token
+create index idx_book_isbn on book (isbn);
+create index idx_user_token on user (token);
@@ -0,0 +1,4 @@
+-- When the session of the token ends at the latest, so a session that is restored from the database after a restart
+-- (or after it was evicted from the session store) still ends at the time it would have. Tokens from before this column
+-- have no expiry and are no longer accepted.
+alter table user add column token_expires_at datetime(6);
@@ -0,0 +1,85 @@
+package wt.bookstore.backend.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void continuesInNewSegmentsAndAfterRestart() throws Exception {
+        AuditJournal journal = start();
+        for (long id = 1; id <= 10; id++)
+            journal.record(AuditEntity.BOOK, AuditOperation.CREATE, id);
+        journal.stop();
+
+        journal = start();
+        for (long id = 11; id <= 20; id++)
+            journal.record(AuditEntity.COPY, AuditOperation.UPDATE, id);
+        journal.stop();
+
+        // Four records fit in a segment after its header
+        assertEquals(5, segmentCount());
+        List<AuditRecord> records = start().scan(0, Long.MAX_VALUE, null, null, 100);
+        assertEquals(20, records.size());
+        for (int i = 0; i < records.size(); i++)
+            assertEquals(i + 1, records.get(i).getEntityId());
+        assertEquals(AuditOperation.UPDATE, records.get(19).getOperation());
+    }
+
+    @Test
+    void recoversRecordsThatTheHeaderDoesNotCountYet() throws Exception {
+        AuditJournal journal = start();
+        journal.record(AuditEntity.LOAN, AuditOperation.CREATE, 1);
+        journal.stop();
+
+        // As if the process stopped after writing a record, but before updating the header
+        Path segment = directory.resolve(String.format("%020d.journal", 1));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(AuditRecord.SIZE);
+            new AuditRecord(System.currentTimeMillis(), AuditEntity.LOAN, AuditOperation.DELETE, 1, 0)
+                    .writeTo(record, 0);
+            channel.write(record, AuditJournal.HEADER_SIZE + AuditRecord.SIZE);
+        }
+
+        journal = start();
+        journal.record(AuditEntity.LOAN, AuditOperation.CREATE, 2);
+        journal.stop();
+
+        List<AuditRecord> records = journal.scan(0, Long.MAX_VALUE, AuditEntity.LOAN, null, 100);
+        assertEquals(List.of(AuditOperation.CREATE, AuditOperation.DELETE, AuditOperation.CREATE),
+                records.stream().map(AuditRecord::getOperation).toList());
+    }
+
+    private AuditJournal start() throws Exception {
+        AuditJournal journal = new AuditJournal();
+        ReflectionTestUtils.setField(journal, "directory", directory.toString());
+        ReflectionTestUtils.setField(journal, "segmentSize", 5 * AuditRecord.SIZE);
+        ReflectionTestUtils.setField(journal, "queueCapacity", 100);
+        ReflectionTestUtils.setField(journal, "maxGroupSize", 3);
+        ReflectionTestUtils.setField(journal, "sync", true);
+        ReflectionTestUtils.setField(journal, "meterRegistry", new SimpleMeterRegistry());
+        journal.start();
+        return journal;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package wt.bookstore.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The migrations create every index the check expects, and the check notices when one is dropped.
+ */
+@SpringBootTest
+@ActiveProfiles("embedded")
+class SchemaIndexCheckTests {
+
+    @Autowired
+    private SchemaIndexCheck schemaIndexCheck;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsCreateExpectedIndexes() {
+        assertDoesNotThrow(schemaIndexCheck::check);
+    }
+
+    @Test
+    void failsWhenIndexIsMissing() {
+        jdbcTemplate.execute("drop index idx_loan_copy_end_date on loan");
+        try {
+            IllegalStateException e = assertThrows(IllegalStateException.class, schemaIndexCheck::check);
+            assertTrue(e.getMessage().contains("loan (copy_id, end_date)"), e.getMessage());
+        } finally {
+            jdbcTemplate.execute("create index idx_loan_copy_end_date on loan (copy_id, end_date)");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Keyword;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.ChangeBookDto;
+import wt.bookstore.backend.dto.SaveKeywordDto;
+import wt.bookstore.backend.security.AuthenticationInterceptor;
+import wt.bookstore.backend.security.UserSession;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AuditControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void recordsCommittedChangesWithTheirUser() throws Exception {
+        User admin = user();
+        Book book = book();
+        String name = unique("detective");
+
+        ChangeBookDto changeBookDto = new ChangeBookDto();
+        changeBookDto.setIsbn(book.getIsbn());
+        changeBookDto.setTitle(unique("Title"));
+        changeBookDto.setAuthor(book.getAuthor());
+        perform(as(admin, json(put("/book/{id}", book.getId()), changeBookDto))).andExpect(status().isOk());
+        perform(as(admin, json(post("/keyword/create"), keyword(book.getId(), name)))).andExpect(status().isOk());
+        perform(as(admin, delete("/book/{id}", book.getId()))).andExpect(status().isOk());
+
+        String path = "/audit?entity=book&entityId=" + book.getId();
+        awaitRecords(admin, path, 4);
+        perform(as(admin, get(path)))
+                .andExpect(jsonPath("$[*].operation", contains("create", "update", "update", "delete")))
+                .andExpect(jsonPath("$[*].userId", contains(0, (int) admin.getId(), (int) admin.getId(),
+                        (int) admin.getId())));
+
+        Keyword keyword = keywordRepository.findByName(Keyword.normalizeName(name)).orElseThrow();
+        awaitRecords(admin, "/audit?entity=keyword&entityId=" + keyword.getId(), 1);
+    }
+
+    @Test
+    void onlyAdministratorsReadTheJournal() throws Exception {
+        perform(get("/audit")).andExpect(status().isUnauthorized());
+        perform(as(new UserSession(user().getId(), false, System.currentTimeMillis()), get("/audit")))
+                .andExpect(status().isForbidden());
+        perform(as(user(), get("/audit").param("entity", "shelf"))).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void filtersOnTimeRange() throws Exception {
+        User admin = user();
+        Book book = book();
+
+        awaitRecords(admin, "/audit?entity=book&entityId=" + book.getId(), 1);
+        perform(as(admin, get("/audit").param("entity", "book").param("entityId", String.valueOf(book.getId()))
+                .param("to", "2023-01-01T00:00:00Z")))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    /**
+     * Records are written on another thread after the commit, so they can be found shortly after the request that
+     * caused them.
+     */
+    private void awaitRecords(User admin, String path, int expected) throws Exception {
+        await(() -> records(admin, path).size() >= expected);
+        List<?> records = records(admin, path);
+        assertEquals(expected, records.size(), records::toString);
+    }
+
+    private List<?> records(User admin, String path) throws Exception {
+        String content = perform(as(admin, get(path))).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(content, List.class);
+    }
+
+    private static MockHttpServletRequestBuilder as(User admin, MockHttpServletRequestBuilder request) {
+        return as(new UserSession(admin.getId(), true, System.currentTimeMillis()), request);
+    }
+
+    private static MockHttpServletRequestBuilder as(UserSession session, MockHttpServletRequestBuilder request) {
+        return request.requestAttr(AuthenticationInterceptor.SESSION_ATTRIBUTE, session);
+    }
+
+    private static SaveKeywordDto keyword(long bookId, String name) {
+        SaveKeywordDto saveKeywordDto = new SaveKeywordDto();
+        saveKeywordDto.setBookId(bookId);
+        saveKeywordDto.setName(name);
+        return saveKeywordDto;
+    }
+}
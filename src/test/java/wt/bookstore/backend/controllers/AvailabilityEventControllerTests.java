@@ -0,0 +1,76 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Copy;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.ChangeCopyDto;
+import wt.bookstore.backend.dto.SaveReservationDto;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class AvailabilityEventControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void pushesChangesToSubscribersOfBookAndOfAllBooks() throws Exception {
+        Book book = book();
+        Book otherBook = book();
+        Copy copy = copy(book);
+        User user = user();
+        MvcResult bookEvents = subscribe("/book/{id}/events", book.getId());
+        MvcResult allEvents = subscribe("/events");
+
+        ChangeCopyDto changeCopyDto = new ChangeCopyDto();
+        changeCopyDto.setAvailable(false);
+        perform(json(put("/copy/{id}/available", copy.getId()), changeCopyDto)).andExpect(status().isOk());
+        perform(json(post("/reservation/create"), reservation(user, otherBook.getId()))).andExpect(status().isOk());
+
+        String copyEvent = "\"type\":\"copy\",\"change\":\"updated\",\"id\":" + copy.getId() + ",\"bookId\":"
+                + book.getId() + ",\"copyId\":" + copy.getId() + ",\"available\":false";
+        awaitContent(bookEvents, "event:copy", copyEvent);
+        awaitContent(allEvents, "event:copy", copyEvent, "event:reservation",
+                "\"bookId\":" + otherBook.getId());
+        assertFalse(bookEvents.getResponse().getContentAsString().contains("event:reservation"));
+    }
+
+    @Test
+    void rejectsUnknownBook() throws Exception {
+        mockMvc.perform(get("/book/{id}/events", Long.MAX_VALUE).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isNotFound());
+    }
+
+    private MvcResult subscribe(String path, Object... variables) throws Exception {
+        return mockMvc.perform(get(path, variables).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /**
+     * Events are sent on another thread after the commit, so they arrive shortly after the request that caused them.
+     */
+    private static void awaitContent(MvcResult result, String... expected) throws Exception {
+        assertTrue(await(() -> containsAll(result.getResponse().getContentAsString(), expected)),
+                result.getResponse().getContentAsString());
+    }
+
+    private static boolean containsAll(String content, String... expected) {
+        for (String part : expected)
+            if (!content.contains(part))
+                return false;
+        return true;
+    }
+
+    private static SaveReservationDto reservation(User user, long bookId) {
+        SaveReservationDto saveReservationDto = new SaveReservationDto();
+        saveReservationDto.setUserId(user.getId());
+        saveReservationDto.setBookId(bookId);
+        saveReservationDto.setDate(LocalDate.of(2023, 3, 1));
+        return saveReservationDto;
+    }
+}
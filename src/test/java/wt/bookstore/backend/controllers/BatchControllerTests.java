@@ -0,0 +1,80 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.User;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BatchControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void rollsBackAtomicBatchWhenAnOperationFails() throws Exception {
+        Book book = book();
+        User user = user();
+        Map<String, Object> batch = Map.of("atomic", true, "operations", List.of(
+                operation("POST", "copy/create", Map.of("bookId", book.getId())),
+                operation("POST", "user/create", Map.of("firstName", "Jan", "lastName", "de Vries",
+                        "emailAddress", user.getEmailAddress())),
+                operation("DELETE", "copy/" + Long.MAX_VALUE, null)));
+
+        perform(json(post("/batch"), batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(false))
+                .andExpect(jsonPath("$.results[*].status", contains(424, 409, 424)));
+
+        assertTrue(copyRepository.findByBookId(book.getId()).isEmpty());
+    }
+
+    @Test
+    void commitsOtherOperationsOfBestEffortBatch() throws Exception {
+        Book book = book();
+        String title = unique("Title");
+        Map<String, Object> batch = Map.of("atomic", false, "operations", List.of(
+                operation("POST", "copy/create", Map.of("bookId", book.getId())),
+                operation("PUT", "loan/abc", Map.of()),
+                operation("PUT", "book/" + book.getId(), Map.of("isbn", book.getIsbn(), "title", title,
+                        "author", book.getAuthor())),
+                operation("GET", "book", null)));
+
+        perform(json(post("/batch"), batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[*].status", contains(200, 400, 200, 404)));
+
+        assertEquals(1, copyRepository.findByBookId(book.getId()).size());
+        assertEquals(title, bookRepository.findById(book.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void reportsDatabaseConflictAndCommitsTheOtherOperations() throws Exception {
+        Book book = book();
+        String emailAddress = unique("batch") + "@example.nl";
+        Map<String, Object> user = Map.of("firstName", "Jan", "lastName", "de Vries", "emailAddress", emailAddress,
+                "password", "geheim");
+        // The email index only learns about the first user when the batch commits, so the unique index rejects the second
+        Map<String, Object> batch = Map.of("atomic", false, "operations", List.of(
+                operation("POST", "user/create", user),
+                operation("POST", "user/create", user),
+                operation("POST", "copy/create", Map.of("bookId", book.getId()))));
+
+        perform(json(post("/batch"), batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.committed").value(true))
+                .andExpect(jsonPath("$.results[*].status", contains(200, 409, 200)));
+
+        assertTrue(userRepository.findByEmailAddress(emailAddress).isPresent());
+        assertEquals(1, copyRepository.findByBookId(book.getId()).size());
+    }
+
+    private static Map<String, Object> operation(String method, String path, Object body) {
+        return body == null ? Map.of("method", method, "path", path)
+                : Map.of("method", method, "path", path, "body", body);
+    }
+}
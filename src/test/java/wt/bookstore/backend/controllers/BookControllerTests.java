@@ -0,0 +1,136 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.dto.ChangeBookDto;
+import wt.bookstore.backend.dto.SaveBookDto;
+import wt.bookstore.backend.dto.SaveKeywordDto;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BookControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void createsBook() throws Exception {
+        SaveBookDto saveBookDto = new SaveBookDto();
+        saveBookDto.setIsbn(9789044633660L);
+        saveBookDto.setTitle(unique("De acht bergen"));
+        saveBookDto.setAuthor("Paolo Cognetti");
+
+        perform(json(post("/book/create"), saveBookDto)).andExpect(status().isOk());
+
+        List<Book> books = bookRepository.findByTitleContainingOrAuthorContaining(saveBookDto.getTitle(),
+                saveBookDto.getTitle(), PageRequest.of(0, 10));
+        assertEquals(1, books.size());
+        assertEquals("Paolo Cognetti", books.get(0).getAuthor());
+    }
+
+    @Test
+    void findsBookById() throws Exception {
+        Book book = book();
+
+        perform(get("/book/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(book.getId()))
+                .andExpect(jsonPath("$.title").value(book.getTitle()))
+                .andExpect(header().exists(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void answersNotModifiedUntilBookChanges() throws Exception {
+        Book book = book();
+        String eTag = perform(get("/book/{id}", book.getId())).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        perform(get("/book/{id}", book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+        // Only a matching ETag counts
+        perform(get("/book/{id}", book.getId()).header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk());
+        perform(get("/book/{id}", book.getId()).header(HttpHeaders.IF_MODIFIED_SINCE, "Fri, 01 Jan 2100 00:00:00 GMT"))
+                .andExpect(status().isOk());
+
+        ChangeBookDto changeBookDto = new ChangeBookDto();
+        changeBookDto.setIsbn(book.getIsbn());
+        changeBookDto.setTitle(unique("Changed"));
+        changeBookDto.setAuthor(book.getAuthor());
+        perform(json(put("/book/{id}", book.getId()), changeBookDto)).andExpect(status().isOk());
+
+        perform(get("/book/{id}", book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(changeBookDto.getTitle()))
+                .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    void findsAllBooksAndPages() throws Exception {
+        Book book = book();
+
+        perform(get("/book"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) book.getId())));
+        perform(get("/bookPage/{pageNumber}/{numberPerPage}", 0, 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void searchesTitlesAndAuthors() throws Exception {
+        Book book = book();
+
+        perform(get("/booksearch/{query}/{pageNumber}/{numberPerPage}", book.getAuthor(), 0, 10))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(book.getId()));
+    }
+
+    @Test
+    void findsMultipleBooksInOrder() throws Exception {
+        Book first = book();
+        Book second = book();
+
+        perform(get("/book/multi").param("ids", second.getId() + "," + Long.MAX_VALUE + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains((int) second.getId(), (int) first.getId())))
+                .andExpect(jsonPath("$.missingIds", contains(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void findsBooksWithTheSameKeywords() throws Exception {
+        Book book = book();
+        Book similar = book();
+        String[] names = {unique("poezie"), unique("natuur"), unique("winter")};
+        SaveKeywordDto[] keywords = new SaveKeywordDto[names.length * 2];
+        for (int i = 0; i < names.length; i++) {
+            keywords[2 * i] = keyword(book, names[i]);
+            keywords[2 * i + 1] = keyword(similar, names[i]);
+        }
+        perform(json(post("/keyword/create/bulk"), keywords)).andExpect(status().isOk());
+
+        perform(get("/book/{id}/similar", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) similar.getId())));
+    }
+
+    @Test
+    void deletesBook() throws Exception {
+        Book book = book();
+
+        perform(delete("/book/{id}", book.getId())).andExpect(status().isOk());
+
+        assertFalse(bookRepository.existsById(book.getId()));
+    }
+
+    private static SaveKeywordDto keyword(Book book, String name) {
+        SaveKeywordDto saveKeywordDto = new SaveKeywordDto();
+        saveKeywordDto.setBookId(book.getId());
+        saveKeywordDto.setName(name);
+        return saveKeywordDto;
+    }
+}
@@ -0,0 +1,134 @@
+package wt.bookstore.backend.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import wt.bookstore.backend.domains.*;
+import wt.bookstore.backend.repository.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Base class of the controller integration tests: runs the whole application against the in-memory database of the
+ * "embedded" profile and sends requests through {@link MockMvc}. All test classes share one application context and so
+ * one database; tests create their own data with the helpers below and only assert on that data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+abstract class ControllerIntegrationTest {
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected IBookRepository bookRepository;
+
+    @Autowired
+    protected ICopyRepository copyRepository;
+
+    @Autowired
+    protected IUserRepository userRepository;
+
+    @Autowired
+    protected ILoanRepository loanRepository;
+
+    @Autowired
+    protected IReservationRepository reservationRepository;
+
+    @Autowired
+    protected IKeywordRepository keywordRepository;
+
+    /**
+     * Performs the request, and for endpoints that answer asynchronously (the catalog reads and the login) the
+     * dispatch of their result as well.
+     */
+    protected ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        if (result.getRequest().isAsyncStarted())
+            return mockMvc.perform(asyncDispatch(result));
+        return actions;
+    }
+
+    protected MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+    }
+
+    /**
+     * Checks the condition every 20 ms until it holds or 5 seconds have passed, for what happens on another thread after
+     * a request, such as the events and audit records written after a commit.
+     *
+     * @return whether the condition held in the end
+     */
+    protected static boolean await(Callable<Boolean> condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.call()) {
+            if (System.currentTimeMillis() >= deadline)
+                return false;
+            Thread.sleep(20);
+        }
+        return true;
+    }
+
+    /**
+     * A value that no other test uses, for titles, names and email addresses.
+     */
+    protected static String unique(String prefix) {
+        return prefix + "-" + sequence.incrementAndGet() + "-" + System.nanoTime();
+    }
+
+    protected Book book() {
+        return bookRepository.save(new Book(9789000000000L + sequence.incrementAndGet(), unique("Title"),
+                unique("Author")));
+    }
+
+    protected Copy copy(Book book) {
+        Copy copy = new Copy();
+        copy.setBook(book);
+        copy.setAvailable(true);
+        return copyRepository.save(copy);
+    }
+
+    protected User user() {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName(unique("User"));
+        user.setEmailAddress(unique("user") + "@bookstore.test");
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+
+    protected Loan loan(User user, Copy copy) {
+        Loan loan = new Loan();
+        loan.setUser(user);
+        loan.setCopy(copy);
+        loan.setStartDate(LocalDate.of(2023, 3, 1));
+        return loanRepository.save(loan);
+    }
+
+    protected Reservation reservation(User user, Book book) {
+        Reservation reservation = new Reservation();
+        reservation.setUser(user);
+        reservation.setBook(book);
+        reservation.setDate(LocalDate.of(2023, 3, 1));
+        return reservationRepository.save(reservation);
+    }
+}
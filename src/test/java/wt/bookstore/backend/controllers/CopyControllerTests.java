@@ -0,0 +1,78 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Copy;
+import wt.bookstore.backend.dto.ChangeCopyDto;
+import wt.bookstore.backend.dto.SaveCopyDto;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static wt.bookstore.backend.metrics.QueryCountAssertions.assertMaxStatements;
+
+class CopyControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void createsCopyOfBook() throws Exception {
+        Book book = book();
+        SaveCopyDto saveCopyDto = new SaveCopyDto();
+        saveCopyDto.setBookId(book.getId());
+
+        perform(json(post("/copy/create"), saveCopyDto))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+
+        assertEquals(1, copyRepository.findByBookId(book.getId()).size());
+    }
+
+    @Test
+    void findsCopyWithBookTitle() throws Exception {
+        Book book = book();
+        Copy copy = copy(book);
+
+        perform(get("/copy/{id}", copy.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true))
+                .andExpect(jsonPath("$.bookTitle").value(book.getTitle()));
+        perform(get("/copy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) copy.getId())));
+    }
+
+    @Test
+    void findsMultipleCopiesInFewStatements() throws Exception {
+        Book book = book();
+        Copy first = copy(book);
+        Copy second = copy(book);
+        Copy third = copy(book());
+
+        assertMaxStatements(mockMvc, get("/copy/multi").param("ids", third.getId() + "," + first.getId() + ","
+                + second.getId()), 3);
+        perform(get("/copy/multi").param("ids", third.getId() + "," + first.getId() + "," + Long.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains((int) third.getId(), (int) first.getId())))
+                .andExpect(jsonPath("$.missingIds", contains(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void updatesAvailability() throws Exception {
+        Copy copy = copy(book());
+        ChangeCopyDto changeCopyDto = new ChangeCopyDto();
+        changeCopyDto.setAvailable(false);
+
+        perform(json(put("/copy/{id}/available", copy.getId()), changeCopyDto)).andExpect(status().isOk());
+
+        assertFalse(copyRepository.findById(copy.getId()).orElseThrow().isAvailable());
+    }
+
+    @Test
+    void deletesCopy() throws Exception {
+        Copy copy = copy(book());
+
+        perform(delete("/copy/{id}", copy.getId())).andExpect(status().isOk());
+
+        assertFalse(copyRepository.existsById(copy.getId()));
+    }
+}
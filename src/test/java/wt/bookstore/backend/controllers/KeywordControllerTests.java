@@ -0,0 +1,123 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Keyword;
+import wt.bookstore.backend.dto.SaveKeywordDto;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class KeywordControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void createsKeywordOnceAndTagsBooks() throws Exception {
+        Book first = book();
+        Book second = book();
+        String name = unique("thriller");
+
+        perform(json(post("/keyword/create"), keyword(first.getId(), name.toUpperCase())))
+                .andExpect(content().string("true"));
+        perform(json(post("/keyword/create"), keyword(second.getId(), name)))
+                .andExpect(content().string("true"));
+
+        Keyword keyword = keywordRepository.findByName(Keyword.normalizeName(name)).orElseThrow();
+        perform(get("/keyword/{id}", keyword.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(keyword.getName()));
+        perform(get("/keyword/cloud").param("limit", "1000"))
+                .andExpect(jsonPath("$[?(@.id == " + keyword.getId() + ")].count", contains(2)));
+    }
+
+    @Test
+    void changesVersionOfKeywordsWhenKeywordIsCreated() throws Exception {
+        String eTag = perform(get("/keyword")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(get("/keyword").header(HttpHeaders.IF_NONE_MATCH, eTag)).andExpect(status().isNotModified());
+
+        String name = unique("biografie");
+        perform(json(post("/keyword/create"), keyword(book().getId(), name)));
+
+        perform(get("/keyword").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", hasItem(Keyword.normalizeName(name))));
+    }
+
+    @Test
+    void tagsInBulkAndReportsUnknownBooks() throws Exception {
+        Book book = book();
+        String name = unique("filosofie");
+        SaveKeywordDto[] keywords = {keyword(book.getId(), name), keyword(book.getId(), name),
+                keyword(Long.MAX_VALUE, name)};
+
+        perform(json(post("/keyword/create/bulk"), keywords))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tagged").value(1))
+                .andExpect(jsonPath("$.createdKeywords").value(1))
+                .andExpect(jsonPath("$.unknownBookIds", contains(Long.MAX_VALUE)));
+    }
+
+    @Test
+    void createsKeywordOnceWhenBulkRequestsRace() throws Exception {
+        String name = unique("spanning");
+        SaveKeywordDto[] first = {keyword(book().getId(), name)};
+        SaveKeywordDto[] second = {keyword(book().getId(), name)};
+
+        CompletableFuture<String> firstResult = CompletableFuture.supplyAsync(() -> bulk(first));
+        CompletableFuture<String> secondResult = CompletableFuture.supplyAsync(() -> bulk(second));
+
+        int created = 0;
+        for (String result : List.of(firstResult.get(), secondResult.get()))
+            created += objectMapper.readTree(result).get("createdKeywords").asInt();
+        assertEquals(1, created);
+        assertTrue(keywordRepository.findByName(Keyword.normalizeName(name)).isPresent());
+    }
+
+    @Test
+    void untagsBook() throws Exception {
+        Book book = book();
+        String name = unique("humor");
+        perform(json(post("/keyword/create"), keyword(book.getId(), name)));
+        Keyword keyword = keywordRepository.findByName(Keyword.normalizeName(name)).orElseThrow();
+
+        perform(delete("/keyword/{id}/book/{bookId}", keyword.getId(), book.getId()))
+                .andExpect(content().string("true"));
+        perform(delete("/keyword/{id}/book/{bookId}", keyword.getId(), book.getId()))
+                .andExpect(content().string("false"));
+        perform(get("/keyword/cloud").param("limit", "1000"))
+                .andExpect(jsonPath("$[?(@.id == " + keyword.getId() + ")].count", contains(0)));
+    }
+
+    @Test
+    void deletesKeyword() throws Exception {
+        Keyword keyword = new Keyword();
+        keyword.setName(unique("kunst"));
+        keywordRepository.save(keyword);
+
+        perform(delete("/keyword/{id}", keyword.getId())).andExpect(status().isOk());
+
+        assertFalse(keywordRepository.existsById(keyword.getId()));
+    }
+
+    private String bulk(SaveKeywordDto[] keywords) {
+        try {
+            return perform(json(post("/keyword/create/bulk"), keywords))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SaveKeywordDto keyword(long bookId, String name) {
+        SaveKeywordDto saveKeywordDto = new SaveKeywordDto();
+        saveKeywordDto.setBookId(bookId);
+        saveKeywordDto.setName(name);
+        return saveKeywordDto;
+    }
+}
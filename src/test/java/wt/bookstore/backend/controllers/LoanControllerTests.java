@@ -0,0 +1,105 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Copy;
+import wt.bookstore.backend.domains.Loan;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.ChangeLoanDto;
+import wt.bookstore.backend.dto.SaveLoanDto;
+import wt.bookstore.backend.dto.SaveReservationDto;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class LoanControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void createsLoan() throws Exception {
+        User user = user();
+        Copy copy = copy(book());
+        SaveLoanDto saveLoanDto = new SaveLoanDto();
+        saveLoanDto.setUserId(user.getId());
+        saveLoanDto.setCopyId(copy.getId());
+        saveLoanDto.setStartDate(LocalDate.of(2023, 3, 1));
+
+        perform(json(post("/loan/create"), saveLoanDto))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+
+        assertEquals(1, loanRepository.findByUserId(user.getId()).size());
+    }
+
+    @Test
+    void createsLoanFromReservation() throws Exception {
+        User user = user();
+        Book book = book();
+        Copy copy = copy(book);
+        SaveReservationDto saveReservationDto = new SaveReservationDto();
+        saveReservationDto.setUserId(user.getId());
+        saveReservationDto.setBookId(book.getId());
+        saveReservationDto.setDate(LocalDate.of(2023, 3, 2));
+
+        perform(json(post("/loan/create/fromreservation"), saveReservationDto)).andExpect(status().isOk());
+
+        Loan loan = loanRepository.findByUserId(user.getId()).get(0);
+        assertEquals(copy.getId(), loan.getCopy().getId());
+        assertEquals(LocalDate.of(2023, 3, 2), loan.getStartDate());
+    }
+
+    @Test
+    void findsLoanWithUserAndBook() throws Exception {
+        User user = user();
+        Book book = book();
+        Loan loan = loan(user, copy(book));
+
+        perform(get("/loan/{id}", loan.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(loan.getId()))
+                .andExpect(jsonPath("$.startDate").value("2023-03-01"))
+                .andExpect(jsonPath("$.userLastName").value(user.getLastName()))
+                .andExpect(jsonPath("$.bookTitle").value(book.getTitle()));
+        perform(get("/loan"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) loan.getId())));
+    }
+
+    @Test
+    void listsLoansDictionaryEncoded() throws Exception {
+        User user = user();
+        Book book = book();
+        loan(user, copy(book));
+        loan(user, copy(book));
+
+        perform(get("/loan/compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.strings", hasItems(user.getLastName(), book.getTitle())))
+                .andExpect(jsonPath("$.strings[?(@ == '" + book.getTitle() + "')]", hasSize(1)));
+    }
+
+    @Test
+    void updatesLoanDates() throws Exception {
+        Loan loan = loan(user(), copy(book()));
+        ChangeLoanDto changeLoanDto = new ChangeLoanDto();
+        changeLoanDto.setEndDate(LocalDate.of(2023, 3, 20));
+
+        perform(json(put("/loan/{id}", loan.getId()), changeLoanDto)).andExpect(status().isOk());
+
+        Loan updated = loanRepository.findById(loan.getId()).orElseThrow();
+        assertEquals(LocalDate.of(2023, 3, 1), updated.getStartDate());
+        assertEquals(LocalDate.of(2023, 3, 20), updated.getEndDate());
+    }
+
+    @Test
+    void deletesLoan() throws Exception {
+        Loan loan = loan(user(), copy(book()));
+
+        perform(delete("/loan/{id}", loan.getId())).andExpect(status().isOk());
+
+        assertFalse(loanRepository.existsById(loan.getId()));
+    }
+}
@@ -0,0 +1,85 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Reservation;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.ChangeReservationDto;
+import wt.bookstore.backend.dto.SaveReservationDto;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReservationControllerTests extends ControllerIntegrationTest {
+
+    @Test
+    void createsReservation() throws Exception {
+        User user = user();
+        Book book = book();
+
+        perform(json(post("/reservation/create"), reservation(user, book, LocalDate.of(2023, 4, 1))))
+                .andExpect(status().isOk())
+                .andExpect(content().string("true"));
+
+        Reservation reservation = reservationRepository.findByUserId(user.getId()).get(0);
+        assertEquals(book.getId(), reservation.getBook().getId());
+    }
+
+    @Test
+    void findsReservationWithUserAndBook() throws Exception {
+        User user = user();
+        Book book = book();
+        Reservation reservation = reservation(user, book);
+
+        perform(get("/reservation/{id}", reservation.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.date").value("2023-03-01"))
+                .andExpect(jsonPath("$.userId").value(user.getId()))
+                .andExpect(jsonPath("$.bookTitle").value(book.getTitle()));
+        perform(get("/reservation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem((int) reservation.getId())));
+        perform(get("/reservation/compact"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.strings", hasItem(book.getTitle())));
+    }
+
+    @Test
+    void updatesReservation() throws Exception {
+        User user = user();
+        Reservation reservation = reservation(user, book());
+        Book otherBook = book();
+
+        ChangeReservationDto changeReservationDto = new ChangeReservationDto();
+        changeReservationDto.setDate(LocalDate.of(2023, 5, 1));
+        perform(json(put("/reservation/{id}/date", reservation.getId()), changeReservationDto))
+                .andExpect(status().isOk());
+        perform(json(put("/reservation/{id}", reservation.getId()), reservation(user, otherBook, null)))
+                .andExpect(content().string("true"));
+
+        Reservation updated = reservationRepository.findById(reservation.getId()).orElseThrow();
+        assertEquals(LocalDate.of(2023, 5, 1), updated.getDate());
+        assertEquals(otherBook.getId(), updated.getBook().getId());
+    }
+
+    @Test
+    void deletesReservation() throws Exception {
+        Reservation reservation = reservation(user(), book());
+
+        perform(delete("/reservation/{id}", reservation.getId())).andExpect(content().string("true"));
+
+        assertFalse(reservationRepository.existsById(reservation.getId()));
+    }
+
+    private static SaveReservationDto reservation(User user, Book book, LocalDate date) {
+        SaveReservationDto saveReservationDto = new SaveReservationDto();
+        saveReservationDto.setUserId(user.getId());
+        saveReservationDto.setBookId(book.getId());
+        saveReservationDto.setDate(date);
+        return saveReservationDto;
+    }
+}
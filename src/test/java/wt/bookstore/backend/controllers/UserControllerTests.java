@@ -0,0 +1,268 @@
+package wt.bookstore.backend.controllers;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import wt.bookstore.backend.domains.Book;
+import wt.bookstore.backend.domains.Copy;
+import wt.bookstore.backend.domains.Loan;
+import wt.bookstore.backend.domains.Reservation;
+import wt.bookstore.backend.domains.User;
+import wt.bookstore.backend.dto.ChangeUserDto;
+import wt.bookstore.backend.dto.LoginRequestDto;
+import wt.bookstore.backend.dto.SaveUserDto;
+import wt.bookstore.backend.recommendation.CoBorrowingIndex;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class UserControllerTests extends ControllerIntegrationTest {
+
+    @Autowired
+    private CoBorrowingIndex coBorrowingIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createsUserWithNormalizedEmailAddress() throws Exception {
+        SaveUserDto saveUserDto = saveUser(unique("Jan") + "@Example.NL ", "geheim");
+
+        perform(json(post("/user/create"), saveUserDto)).andExpect(status().isOk());
+
+        User user = userRepository.findByEmailAddress(saveUserDto.getEmailAddress().trim().toLowerCase())
+                .orElseThrow();
+        assertNotEquals("geheim", user.getPassword());
+        perform(get("/user/{id}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value("Jan"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void rejectsEmailAddressThatIsAlreadyRegistered() throws Exception {
+        String emailAddress = unique("sanne") + "@example.nl";
+        perform(json(post("/user/create"), saveUser(emailAddress, "geheim"))).andExpect(status().isOk());
+
+        perform(json(post("/user/create"), saveUser(emailAddress.toUpperCase(), "geheim")))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void findsUsersThatWereNotCreatedThroughTheEndpoint() throws Exception {
+        // Saved directly, like a user of another instance or of the data generator
+        User user = user();
+
+        perform(json(post("/user/create"), saveUser(user.getEmailAddress(), "geheim")))
+                .andExpect(status().isConflict());
+        perform(json(post("/api/user/login"), login(user.getEmailAddress(), "unused")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+    }
+
+    @Test
+    void rejectsConcurrentRegistrationsOfTheSameEmailAddress() throws Exception {
+        SaveUserDto saveUserDto = saveUser(unique("tim") + "@example.nl", "geheim");
+
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            responses.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return perform(json(post("/user/create"), saveUserDto)).andReturn().getResponse().getStatus();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+
+        List<Integer> statuses = new ArrayList<>();
+        for (CompletableFuture<Integer> response : responses)
+            statuses.add(response.get());
+        assertEquals(1, statuses.stream().filter(status -> status == 200).count(), statuses::toString);
+        assertTrue(statuses.stream().allMatch(status -> status == 200 || status == 409), statuses::toString);
+    }
+
+    @Test
+    void findsUsers() throws Exception {
+        User first = user();
+        User second = user();
+
+        perform(get("/user"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItems((int) first.getId(), (int) second.getId())));
+        perform(get("/user/multi").param("ids", second.getId() + "," + first.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].id", contains((int) second.getId(), (int) first.getId())))
+                .andExpect(jsonPath("$.missingIds", empty()));
+    }
+
+    @Test
+    void updatesUser() throws Exception {
+        User user = user();
+        ChangeUserDto changeUserDto = new ChangeUserDto();
+        changeUserDto.setFirstName("Pieter");
+        changeUserDto.setLastName(user.getLastName());
+        changeUserDto.setEmailAddress(unique("pieter") + "@example.nl");
+        changeUserDto.setAdmin(true);
+
+        perform(json(put("/user/{id}", user.getId()), changeUserDto)).andExpect(status().isOk());
+
+        perform(get("/user/{id}", user.getId()))
+                .andExpect(jsonPath("$.firstName").value("Pieter"))
+                .andExpect(jsonPath("$.emailAddress").value(changeUserDto.getEmailAddress()))
+                .andExpect(jsonPath("$.admin").value(true));
+    }
+
+    @Test
+    void logsInAndOut() throws Exception {
+        String emailAddress = unique("fleur") + "@example.nl";
+        perform(json(post("/user/create"), saveUser(emailAddress, "geheim"))).andExpect(status().isOk());
+
+        perform(json(post("/api/user/login"), login(emailAddress, "fout")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        String token = objectMapper.readTree(perform(json(post("/api/user/login"), login(emailAddress, "geheim")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("token").asText();
+        assertEquals(token, userRepository.findByEmailAddress(emailAddress).orElseThrow().getToken());
+
+        perform(post("/api/user/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        assertNull(userRepository.findByEmailAddress(emailAddress).orElseThrow().getToken());
+    }
+
+    @Test
+    void endsSessionWhenUserIsDemotedOrDeleted() throws Exception {
+        String emailAddress = unique("admin") + "@example.nl";
+        perform(json(post("/user/create"), saveUser(emailAddress, "geheim"))).andExpect(status().isOk());
+        User user = userRepository.findByEmailAddress(emailAddress).orElseThrow();
+        ChangeUserDto changeUserDto = new ChangeUserDto();
+        changeUserDto.setFirstName(user.getFirstName());
+        changeUserDto.setLastName(user.getLastName());
+        changeUserDto.setEmailAddress(emailAddress);
+        changeUserDto.setAdmin(true);
+        perform(json(put("/user/{id}", user.getId()), changeUserDto)).andExpect(status().isOk());
+        String authorization = "Bearer " + objectMapper.readTree(perform(json(post("/api/user/login"),
+                login(emailAddress, "geheim"))).andReturn().getResponse().getContentAsString()).get("token").asText();
+        perform(get("/audit").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isOk());
+
+        changeUserDto.setAdmin(false);
+        perform(json(put("/user/{id}", user.getId()), changeUserDto)).andExpect(status().isOk());
+        perform(get("/audit").header(HttpHeaders.AUTHORIZATION, authorization)).andExpect(status().isForbidden());
+
+        perform(delete("/user/{id}", user.getId())).andExpect(status().isOk());
+        perform(get("/audit").header(HttpHeaders.AUTHORIZATION, authorization))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void doesNotRestoreExpiredSessionFromDatabase() throws Exception {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName(unique("User"));
+        user.setEmailAddress(unique("user") + "@bookstore.test");
+        user.setPassword("unused");
+        user.setAdmin(true);
+        user.setToken(unique("token"));
+        user.setTokenExpiresAt(Instant.now().minusSeconds(1));
+        userRepository.save(user);
+
+        perform(get("/audit").header(HttpHeaders.AUTHORIZATION, "Bearer " + user.getToken()))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void recommendsBooksBorrowedByOtherUsers() throws Exception {
+        Book shared = book();
+        Book recommended = book();
+        User reader = user();
+        User otherReader = user();
+        loan(reader, copy(shared));
+        loan(otherReader, copy(shared));
+        loan(otherReader, copy(recommended));
+        coBorrowingIndex.update();
+
+        perform(get("/user/{id}/recommendations", reader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) recommended.getId())));
+        perform(get("/book/{id}/coborrowed", shared.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) recommended.getId())));
+    }
+
+    @Test
+    void countsLoansThatCommitAfterLoansWithHigherIds() throws Exception {
+        Book shared = book();
+        Book recommended = book();
+        User reader = user();
+        User otherReader = user();
+        Copy recommendedCopy = copy(recommended);
+        // A loan id that is handed out, but only committed after the next run of the index
+        Loan late = loan(otherReader, recommendedCopy);
+        loanRepository.delete(late);
+        loan(reader, copy(shared));
+        loan(otherReader, copy(shared));
+        coBorrowingIndex.update();
+
+        jdbcTemplate.update("insert into loan (id, start_date, copy_id, user_id) values (?, ?, ?, ?)",
+                late.getId(), LocalDate.of(2023, 3, 1), recommendedCopy.getId(), otherReader.getId());
+        coBorrowingIndex.update();
+
+        perform(get("/user/{id}/recommendations", reader.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) recommended.getId())));
+    }
+
+    @Test
+    void findsLoansAndReservationsOfUser() throws Exception {
+        Book book = book();
+        User user = user();
+        Loan loan = loan(user, copy(book));
+        Reservation reservation = reservation(user, book);
+        loan(user(), copy(book));
+
+        perform(get("/user/{id}/loans", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) loan.getId())))
+                .andExpect(jsonPath("$[0].bookTitle").value(book.getTitle()))
+                .andExpect(jsonPath("$[0].userLastName").value(user.getLastName()));
+        perform(get("/user/{id}/reservations", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) reservation.getId())))
+                .andExpect(jsonPath("$[0].bookId").value(book.getId()))
+                .andExpect(jsonPath("$[0].userId").value(user.getId()));
+    }
+
+    @Test
+    void deletesUser() throws Exception {
+        User user = user();
+
+        perform(delete("/user/{id}", user.getId())).andExpect(status().isOk());
+
+        assertFalse(userRepository.existsById(user.getId()));
+    }
+
+    private static SaveUserDto saveUser(String emailAddress, String password) {
+        SaveUserDto saveUserDto = new SaveUserDto();
+        saveUserDto.setFirstName("Jan");
+        saveUserDto.setLastName("de Vries");
+        saveUserDto.setEmailAddress(emailAddress);
+        saveUserDto.setPassword(password);
+        return saveUserDto;
+    }
+
+    private static LoginRequestDto login(String username, String password) {
+        LoginRequestDto loginRequestDto = new LoginRequestDto();
+        loginRequestDto.setUsername(username);
+        loginRequestDto.setPassword(password);
+        return loginRequestDto;
+    }
+}
@@ -0,0 +1,125 @@
+package wt.bookstore.backend.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Routes reads between two in-memory databases: the primary, and a replica that only has its schema copied from the
+ * primary plus one book. A book that is only on the replica shows which database answered. A second replica is never
+ * reachable and should be skipped.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "bookstore.datasource.replica-urls=" + ReplicaRoutingTests.REPLICA_URL + ",jdbc:h2:tcp://localhost:1/unreachable",
+        "bookstore.datasource.read-your-writes-ms=60000"})
+@AutoConfigureMockMvc
+@ActiveProfiles("embedded")
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_TITLE = "Only on the replica";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaDataSources replicaDataSources;
+
+    @BeforeEach
+    void copySchemaToReplica() throws Exception {
+        List<String> schema = new ArrayList<>();
+        try (Connection connection = primaryDataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("script nodata")) {
+            while (resultSet.next())
+                schema.add(resultSet.getString(1));
+        }
+
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop all objects");
+            for (String sql : schema)
+                if (!sql.startsWith("CREATE USER"))
+                    statement.execute(sql);
+            statement.execute("insert into book (isbn, title, author) values (1, '" + REPLICA_TITLE + "', 'Replica')");
+        }
+        replicaDataSources.checkHealth();
+    }
+
+    @Test
+    void readsFromReplicaUntilClientWrites() throws Exception {
+        search("10.0.0.1").andExpect(jsonPath("$[*].title", contains(REPLICA_TITLE)));
+
+        mockMvc.perform(client(post("/keyword/create/bulk"), "10.0.0.1")
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isOk());
+
+        search("10.0.0.1").andExpect(jsonPath("$", empty()));
+        search("10.0.0.2").andExpect(jsonPath("$[*].title", contains(REPLICA_TITLE)));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void readsChangedCatalogFromPrimaryForEveryClient() throws Exception {
+        mockMvc.perform(client(post("/book/create"), "10.0.0.4")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"isbn\": 2, \"title\": \"Only on the primary\", \"author\": \"Primary\"}"))
+                .andExpect(status().isOk());
+
+        // The replica does not have the new book yet, so it must not answer with the new version of the books
+        search("10.0.0.5").andExpect(jsonPath("$", empty()));
+    }
+
+    @Test
+    void skipsReplicaThatIsDown() throws Exception {
+        assertTrue(replicaDataSources.isHealthy("replica-0"));
+        assertFalse(replicaDataSources.isHealthy("replica-1"));
+
+        for (int i = 0; i < 4; i++)
+            search("10.0.0.3").andExpect(jsonPath("$[*].title", contains(REPLICA_TITLE)));
+    }
+
+    private ResultActions search(String clientAddress) throws Exception {
+        MvcResult result = mockMvc.perform(client(get("/booksearch/{query}/0/10", "replica"), clientAddress))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    private static MockHttpServletRequestBuilder client(MockHttpServletRequestBuilder request, String address) {
+        return request.with(mockRequest -> {
+            mockRequest.setRemoteAddr(address);
+            return mockRequest;
+        });
+    }
+}
@@ -0,0 +1,41 @@
+package wt.bookstore.backend.metrics;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test helper to guard endpoints against N+1 queries: performs a request with {@link MockMvc} and asserts the number of
+ * SQL statements it took, as counted by the {@link QueryDiagnosticsInterceptor}.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Performs the request and returns the query counts of it.
+     */
+    public static QueryCounter.QueryCounts countQueries(MockMvc mockMvc, RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        QueryCounter.QueryCounts counts =
+                (QueryCounter.QueryCounts) result.getRequest().getAttribute(QueryDiagnosticsInterceptor.COUNTS_ATTRIBUTE);
+        assertNotNull(counts, "The request was not counted, is it handled by a controller?");
+        return counts;
+    }
+
+    /**
+     * Performs the request and asserts that it took at most {@code maxStatements} SQL statements.
+     */
+    public static QueryCounter.QueryCounts assertMaxStatements(MockMvc mockMvc, RequestBuilder request,
+                                                               int maxStatements) throws Exception {
+        QueryCounter.QueryCounts counts = countQueries(mockMvc, request);
+        assertTrue(counts.getStatements() <= maxStatements, "Expected at most " + maxStatements
+                + " statements, but the request executed " + counts.getStatements() + " (" + counts.getEntityLoads()
+                + " entity loads, " + counts.getCollectionInitializations() + " collection initializations)");
+        return counts;
+    }
+}
@@ -0,0 +1,39 @@
+package wt.bookstore.backend.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookSimilarityIndexTests {
+
+    @Test
+    void findsBooksWithMostlyTheSameKeywords() {
+        BookSimilarityIndex index = new BookSimilarityIndex();
+        for (long keywordId = 1; keywordId <= 10; keywordId++) {
+            index.addKeyword(1, keywordId);
+            index.addKeyword(2, keywordId);
+        }
+        index.addKeyword(2, 11);
+        index.addKeyword(3, 1);
+
+        assertEquals(List.of(2L), index.findSimilar(1, 10));
+    }
+
+    @Test
+    void removesADeletedKeywordFromItsBooks() {
+        BookSimilarityIndex index = new BookSimilarityIndex();
+        index.addKeyword(1, 1);
+        index.addKeyword(2, 1);
+        index.addKeyword(2, 2);
+        index.addKeyword(3, 2);
+
+        index.removeKeyword(1);
+
+        assertEquals(List.of(), index.findSimilar(1, 10));
+        assertEquals(List.of(3L), index.findSimilar(2, 10));
+        index.removeKeyword(2, 2);
+        assertEquals(List.of(), index.findSimilar(3, 10));
+    }
+}
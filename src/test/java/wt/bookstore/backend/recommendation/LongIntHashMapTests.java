@@ -0,0 +1,74 @@
+package wt.bookstore.backend.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTests {
+
+    @Test
+    void keepsTheZeroKeyApartFromTheSlots() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(0));
+        assertEquals(0, map.get(0));
+
+        assertEquals(3, map.addTo(0, 3));
+        assertEquals(5, map.addTo(0, 2));
+        map.addTo(7, 1);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.get(0));
+        assertEquals(2, map.size());
+        assertArrayEquals(new long[]{0, 7}, sorted(map.keys()));
+    }
+
+    @Test
+    void findsKeysThatCollide() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        long[] keys = collidingKeys(3, 8);
+        for (int i = 0; i < keys.length; i++)
+            map.addTo(keys[i], i + 1);
+
+        for (int i = 0; i < keys.length; i++)
+            assertEquals(i + 1, map.get(keys[i]));
+        assertFalse(map.containsKey(collidingKeys(4, 8)[3]));
+    }
+
+    @Test
+    void keepsAllEntriesWhenResizing() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (long key = -500; key < 500; key++) {
+            map.addTo(key * 31, (int) key);
+            map.addTo(key * 31, 1);
+            expected.put(key * 31, (int) key + 1);
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), map.keys().length);
+    }
+
+    /**
+     * @return keys that all have the same slot in a table with the given number of slots
+     */
+    static long[] collidingKeys(int count, int slots) {
+        int slot = LongIntHashMap.hash(1) & (slots - 1);
+        return LongStream.rangeClosed(1, Long.MAX_VALUE)
+                .filter(key -> (LongIntHashMap.hash(key) & (slots - 1)) == slot)
+                .limit(count)
+                .toArray();
+    }
+
+    private static long[] sorted(long[] keys) {
+        Arrays.sort(keys);
+        return keys;
+    }
+}
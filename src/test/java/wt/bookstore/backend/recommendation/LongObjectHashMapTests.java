@@ -0,0 +1,50 @@
+package wt.bookstore.backend.recommendation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTests {
+
+    @Test
+    void keepsTheZeroKeyApartFromTheSlots() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertNull(map.get(0));
+
+        map.put(0, "zero");
+        map.put(0, "still zero");
+        map.put(16, "sixteen");
+
+        assertEquals("still zero", map.get(0));
+        assertEquals("sixteen", map.get(16));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void findsKeysThatCollide() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        long[] keys = LongIntHashMapTests.collidingKeys(4, 16);
+        for (int i = 0; i < 3; i++)
+            map.put(keys[i], "value " + i);
+
+        for (int i = 0; i < 3; i++)
+            assertEquals("value " + i, map.get(keys[i]));
+        assertNull(map.get(keys[3]));
+        assertEquals("value 3", map.computeIfAbsent(keys[3], key -> "value 3"));
+        assertEquals("value 1", map.computeIfAbsent(keys[1], key -> fail("Computed a present value")));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    void keepsAllEntriesWhenResizing() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        for (long key = -500; key < 500; key++)
+            map.put(key * 31, key);
+        // Overwriting does not count as a new entry
+        map.put(31, 1L);
+
+        assertEquals(1000, map.size());
+        for (long key = -500; key < 500; key++)
+            assertEquals(key, map.get(key * 31));
+    }
+}